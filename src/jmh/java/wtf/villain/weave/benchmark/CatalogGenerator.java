@@ -0,0 +1,143 @@
+package wtf.villain.weave.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.storage.Language;
+import wtf.villain.weave.storage.Project;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic catalogs for benchmarks.
+ * <p>Catalogs are fully determined by their size and seed, so every run benchmarks exactly the same translations
+ * without needing a Tolgee instance. Keys are shared by every language and every fourth translation is a plural or
+ * select message, the rest use simple {@code {name}} arguments.
+ */
+public final class CatalogGenerator {
+
+    /**
+     * The seed used by the benchmarks.
+     */
+    public static final long SEED = 0x5745415645L;
+
+    private static final String[] WORDS = {
+          "apple", "banner", "castle", "dragon", "ember", "forest", "garden", "harbor", "island", "jungle",
+          "kingdom", "lantern", "meadow", "north", "ocean", "palace", "quarry", "river", "shadow", "tower",
+          "valley", "winter", "yonder", "zenith", "<red>", "</red>", "Grüße", "naïve", "señor", "日本"
+    };
+
+    private CatalogGenerator() {
+    }
+
+    /**
+     * Generates the values of one language.
+     *
+     * @param tag  the tag of the language, mixed into the seed so every language has different values
+     * @param keys the number of keys
+     * @param seed the seed
+     * @return the values, keyed by translation key, in key order
+     */
+    @NotNull
+    public static Map<String, String> values(@NotNull String tag, int keys, long seed) {
+        Random random = new Random(seed ^ tag.hashCode());
+        Map<String, String> values = new LinkedHashMap<>();
+
+        for (int i = 0; i < keys; i++) {
+            values.put(key(i), switch (i % 4) {
+                case 1 -> plural(random);
+                case 3 -> select(random);
+                default -> plain(random);
+            });
+        }
+
+        return values;
+    }
+
+    /**
+     * Generates a project with the given languages, each translating every key.
+     *
+     * @param projectId the ID of the project
+     * @param keys      the number of keys
+     * @param processor the processor of the translations
+     * @param languages the languages of the project
+     * @return the project
+     */
+    @NotNull
+    public static Project project(int projectId, int keys, @NotNull WeaveProcessor processor, @NotNull List<Language> languages) {
+        Map<String, Language> supportedLanguages = new HashMap<>();
+        Map<String, Map<String, Translation>> translations = new HashMap<>();
+
+        for (Language language : languages) {
+            Map<String, Translation> languageTranslations = new HashMap<>();
+            values(language.tag(), keys, SEED).forEach((key, value) -> languageTranslations.put(key, new Translation(value, processor)));
+
+            supportedLanguages.put(language.tag(), language);
+            translations.put(language.tag(), languageTranslations);
+        }
+
+        return new Project(projectId, supportedLanguages, translations, Map.of(), 1);
+    }
+
+    /**
+     * Gets the key with the given index.
+     *
+     * @param index the index of the key
+     * @return the key
+     */
+    @NotNull
+    public static String key(int index) {
+        return "section-" + (index % 32) + ".message-" + index;
+    }
+
+    /**
+     * Generates a simple message with a {@code name} and a {@code count} argument.
+     *
+     * @param random the random to use
+     * @return the message
+     */
+    @NotNull
+    public static String plain(@NotNull Random random) {
+        return sentence(random, 3) + " {name} " + sentence(random, 4) + " {count} " + sentence(random, 2) + "!";
+    }
+
+    /**
+     * Generates a plural message with a {@code name} and a {@code count} argument.
+     *
+     * @param random the random to use
+     * @return the message
+     */
+    @NotNull
+    public static String plural(@NotNull Random random) {
+        return "{name} " + sentence(random, 2) + " {count, plural, one {# " + sentence(random, 2) + "} other {# "
+              + sentence(random, 3) + "}}";
+    }
+
+    /**
+     * Generates a select message with a {@code name} and a {@code count} argument.
+     *
+     * @param random the random to use
+     * @return the message
+     */
+    @NotNull
+    public static String select(@NotNull Random random) {
+        return "{name, select, John {" + sentence(random, 3) + "} other {" + sentence(random, 2) + "}} {count} "
+              + sentence(random, 2);
+    }
+
+    @NotNull
+    private static String sentence(@NotNull Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < words; i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        return builder.toString();
+    }
+}
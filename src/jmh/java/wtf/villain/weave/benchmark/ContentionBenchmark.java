@@ -0,0 +1,59 @@
+package wtf.villain.weave.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting the same translations from many threads at once, which is what a broadcast to every player
+ * does. Plural templates share an ICU formatter per template, simple ones do not share any mutable state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ContentionBenchmark {
+
+    private Translation plain;
+    private Translation plural;
+    private Map<String, Object> formats;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(CatalogGenerator.SEED);
+        plain = new Translation(CatalogGenerator.plain(random));
+        plural = new Translation(CatalogGenerator.plural(random));
+        formats = Map.of("name", "John", "count", 3);
+    }
+
+    @Benchmark
+    public String sharedPlain() {
+        return plain.prepareInOrder().format("John", 3);
+    }
+
+    @Benchmark
+    public String sharedPlural() {
+        return plural.format(formats);
+    }
+
+    @Benchmark
+    public Object sharedPrepare() {
+        return plain.prepare("name", "count");
+    }
+}
@@ -0,0 +1,92 @@
+package wtf.villain.weave.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wtf.villain.weave.translation.PreparedTranslation;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.PostProcessor;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting a prepared translation, for plain and ICU (plural, select) templates and with 0, 1 or 5
+ * post-processors. Run with the {@code gc} profiler to see {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+    @Param({"plain", "plural", "select"})
+    public String template;
+
+    @Param({"0", "1", "5"})
+    public int processors;
+
+    private Translation translation;
+    private PreparedTranslation prepared;
+    private Map<String, Object> formats;
+    private StringBuilder builder;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(CatalogGenerator.SEED);
+        String pattern = switch (template) {
+            case "plural" -> CatalogGenerator.plural(random);
+            case "select" -> CatalogGenerator.select(random);
+            default -> CatalogGenerator.plain(random);
+        };
+
+        PostProcessor[] postProcessors = new PostProcessor[processors];
+        for (int i = 0; i < processors; i++) {
+            // Typical colour code processor: usually there is nothing to replace.
+            char code = (char) ('a' + i);
+            postProcessors[i] = text -> text.text().replace("&" + code, "§" + code);
+        }
+
+        translation = new Translation(pattern, WeaveProcessor.of(postProcessors));
+        prepared = translation.prepare("name", "count");
+        formats = Map.of("name", "John", "count", "3");
+        builder = new StringBuilder(256);
+        buffer = ByteBuffer.allocate(1024);
+    }
+
+    @Benchmark
+    public String formatArray() {
+        return prepared.format("John", "3");
+    }
+
+    @Benchmark
+    public String formatMap() {
+        return translation.format(formats);
+    }
+
+    @Benchmark
+    public StringBuilder formatTo() {
+        builder.setLength(0);
+        return prepared.formatTo(builder, "John", "3");
+    }
+
+    @Benchmark
+    public ByteBuffer writeTo() {
+        buffer.clear();
+        return prepared.writeTo(buffer, "John", "3");
+    }
+}
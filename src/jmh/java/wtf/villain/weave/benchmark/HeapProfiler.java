@@ -0,0 +1,79 @@
+package wtf.villain.weave.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the peak heap usage ({@code peak.heap}) and the bytes allocated by all threads per operation
+ * ({@code alloc.all.norm}) of every iteration.
+ * <p>Unlike {@code gc.alloc.rate.norm}, which only counts the benchmark threads, the allocation includes background
+ * threads such as the HTTP client's. Threads that terminate during an iteration are not counted. The peaks of the
+ * individual heap pools are added up, so the peak heap usage is an upper bound. Run with
+ * {@code -prof wtf.villain.weave.benchmark.HeapProfiler}.
+ */
+public class HeapProfiler implements InternalProfiler {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Map<Long, Long> allocatedBefore = Map.of();
+
+    @Override
+    public String getDescription() {
+        return "Peak heap usage and allocation of all threads per iteration";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+
+        allocatedBefore = allocated();
+    }
+
+    @Override
+    public Collection<? extends Result<?>> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : allocated().entrySet()) {
+            allocated += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+        }
+
+        long operations = Math.max(1, result.getMetadata().getAllOps());
+        long peak = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+
+        return List.of(
+              new ScalarResult("peak.heap", peak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX),
+              new ScalarResult("alloc.all.norm", (double) allocated / operations, "B/op", AggregationPolicy.AVG));
+    }
+
+    private static Map<Long, Long> allocated() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] allocated = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> threads = new HashMap<>();
+
+        for (int i = 0; i < ids.length; i++) {
+            // Threads that have terminated in the meantime are reported as -1.
+            if (allocated[i] >= 0) threads.put(ids[i], allocated[i]);
+        }
+
+        return threads;
+    }
+}
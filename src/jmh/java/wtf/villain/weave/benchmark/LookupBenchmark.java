@@ -0,0 +1,105 @@
+package wtf.villain.weave.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import wtf.villain.weave.storage.CatalogCache;
+import wtf.villain.weave.storage.Language;
+import wtf.villain.weave.storage.Project;
+import wtf.villain.weave.storage.Storage;
+import wtf.villain.weave.storage.TranslationKey;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures looking translations up: by key through a heap project, through a memory-mapped project and through
+ * pre-resolved {@link TranslationKey} handles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final List<Language> LANGUAGES = List.of(Language.ENGLISH, Language.GERMAN, Language.FRENCH);
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000"})
+    public int keys;
+
+    private Path directory;
+    private Project heap;
+    private Project mapped;
+    private String[] lookupKeys;
+    private TranslationKey[] handles;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        heap = CatalogGenerator.project(1, keys, WeaveProcessor.NONE, LANGUAGES);
+
+        directory = Files.createTempDirectory("weave-benchmark");
+        CatalogCache cache = new CatalogCache(directory);
+        cache.save(heap);
+        mapped = cache.load(1, WeaveProcessor.NONE);
+
+        Storage storage = Storage.builder(List.of(1)).cache(cache).mapCatalog(true).build();
+        if (!storage.loadCache()) throw new IllegalStateException("Could not load the generated catalog");
+
+        lookupKeys = new String[LOOKUPS];
+        handles = new TranslationKey[LOOKUPS];
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupKeys[i] = CatalogGenerator.key((int) ((long) i * 7919 % keys));
+            handles[i] = storage.key(1, lookupKeys[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Translation heapLookup() {
+        return heap.translation(Language.GERMAN, lookupKeys[next()]);
+    }
+
+    @Benchmark
+    public Translation mappedLookup() {
+        return mapped.translation(Language.GERMAN, lookupKeys[next()]);
+    }
+
+    @Benchmark
+    public Translation handleLookup() {
+        return handles[next()].translation(Language.GERMAN);
+    }
+
+    private int next() {
+        return index = (index + 1) & (LOOKUPS - 1);
+    }
+}
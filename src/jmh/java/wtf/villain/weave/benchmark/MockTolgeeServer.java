@@ -0,0 +1,137 @@
+package wtf.villain.weave.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-process stand-in for Tolgee, serving synthetic projects generated by {@link CatalogGenerator}.
+ * <p>Every project has the same languages and keys. Responses are encoded once up front, so serving them costs as
+ * little as possible. Translation responses carry an {@code ETag}, and requests that send it back are answered with
+ * {@code 304 Not Modified}. Several languages can be requested at once by joining their tags with {@code ,}.
+ */
+public final class MockTolgeeServer implements AutoCloseable {
+
+    private static final String[][] LANGUAGES = {
+          {"en", "English"}, {"de", "German"}, {"fr", "French"}, {"es", "Spanish"}, {"it", "Italian"},
+          {"nl", "Dutch"}, {"pl", "Polish"}, {"pt", "Portuguese"}
+    };
+
+    private final MockWebServer server = new MockWebServer();
+    private final byte[] languages;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Map<String, String>> values = new HashMap<>();
+    private final Map<String, byte[]> translations = new ConcurrentHashMap<>();
+
+    /**
+     * @param languageCount the number of languages of every project, at most 8
+     * @param keys          the number of keys of every language
+     * @throws IOException if the server could not be started
+     */
+    public MockTolgeeServer(int languageCount, int keys) throws IOException {
+        List<Map<String, Object>> languageList = new ArrayList<>();
+
+        for (int i = 0; i < languageCount; i++) {
+            String tag = LANGUAGES[i][0];
+            languageList.add(Map.of("id", i + 1, "name", LANGUAGES[i][1], "tag", tag, "base", i == 0));
+            values.put(tag, CatalogGenerator.values(tag, keys, CatalogGenerator.SEED));
+            translations.put(tag, mapper.writeValueAsBytes(Map.of(tag, values.get(tag))));
+        }
+
+        languages = mapper.writeValueAsBytes(Map.of("_embedded", Map.of("languages", languageList)));
+
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Gets the URL to use as the Tolgee endpoint.
+     *
+     * @return the URL
+     */
+    @NotNull
+    public String endpoint() {
+        return server.url("/").toString();
+    }
+
+    /**
+     * Gets the number of requests served so far.
+     *
+     * @return the number of requests
+     */
+    public int requestCount() {
+        return server.getRequestCount();
+    }
+
+    @NotNull
+    private MockResponse respond(@NotNull RecordedRequest request) {
+        String path = request.getRequestUrl() == null ? "" : request.getRequestUrl().encodedPath();
+        String[] segments = path.split("/");
+
+        // /v2/projects/{id}/languages and /v2/projects/{id}/translations/{language}
+        if (segments.length == 5 && segments[4].equals("languages")) {
+            return json(languages);
+        }
+
+        if (segments.length == 6 && segments[4].equals("translations")) {
+            byte[] body = translations.computeIfAbsent(segments[5], this::encode);
+            if (body == null) return new MockResponse().setResponseCode(404);
+
+            String etag = "\"" + segments[5] + "-" + body.length + "\"";
+            if (etag.equals(request.getHeader("If-None-Match"))) {
+                return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+            }
+
+            return json(body).setHeader("ETag", etag);
+        }
+
+        return new MockResponse().setResponseCode(404);
+    }
+
+    // Encodes a bulk response the first time it is requested, or returns null if a language does not exist.
+    private byte[] encode(@NotNull String tags) {
+        Map<String, Map<String, String>> response = new LinkedHashMap<>();
+
+        for (String tag : tags.split(",")) {
+            Map<String, String> languageValues = values.get(tag);
+            if (languageValues == null) return null;
+            response.put(tag, languageValues);
+        }
+
+        try {
+            return mapper.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NotNull
+    private static MockResponse json(byte @NotNull [] body) {
+        return new MockResponse()
+              .setHeader("Content-Type", "application/json")
+              .setBody(new Buffer().write(body));
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
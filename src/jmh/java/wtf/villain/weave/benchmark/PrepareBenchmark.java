@@ -0,0 +1,78 @@
+package wtf.villain.weave.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import wtf.villain.weave.translation.PreparedTranslation;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures preparing translations: cold (compiling the template of a new translation) and warm (finding the already
+ * prepared translation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrepareBenchmark {
+
+    private static final int PATTERNS = 1024;
+
+    @Param({"plain", "plural", "select"})
+    public String template;
+
+    private String[] patterns;
+    private Translation[] warm;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(CatalogGenerator.SEED);
+        patterns = new String[PATTERNS];
+        warm = new Translation[PATTERNS];
+
+        for (int i = 0; i < PATTERNS; i++) {
+            patterns[i] = switch (template) {
+                case "plural" -> CatalogGenerator.plural(random);
+                case "select" -> CatalogGenerator.select(random);
+                default -> CatalogGenerator.plain(random);
+            };
+
+            warm[i] = new Translation(patterns[i]);
+            warm[i].prepare("name", "count");
+        }
+    }
+
+    @Benchmark
+    public PreparedTranslation cold() {
+        return new Translation(patterns[next()]).prepare("name", "count");
+    }
+
+    @Benchmark
+    public PreparedTranslation warm() {
+        return warm[next()].prepare("name", "count");
+    }
+
+    @Benchmark
+    public PreparedTranslation warmList() {
+        return warm[next()].prepare(List.of("name", "count"));
+    }
+
+    private int next() {
+        return index = (index + 1) & (PATTERNS - 1);
+    }
+}
@@ -0,0 +1,102 @@
+package wtf.villain.weave.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import wtf.villain.weave.client.TolgeeClient;
+import wtf.villain.weave.storage.Project;
+import wtf.villain.weave.storage.Storage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Storage#refreshProject(TolgeeClient, int)} against an in-process {@link MockTolgeeServer}.
+ * <ul>
+ *     <li>{@code cold}: a new storage for every refresh, so every translation is created.</li>
+ *     <li>{@code warm}: the same storage without validators, so everything is downloaded again but unchanged
+ *     translations are reused.</li>
+ *     <li>{@code notModified}: the same storage with validators, so the server answers {@code 304}.</li>
+ * </ul>
+ * With {@code bulkFetch}, all languages are fetched with a single request.
+ * <p>The score is the wall time of a refresh. Most of the work happens on the HTTP client's threads, so use the
+ * {@link HeapProfiler} for the allocation per refresh and the peak heap usage. The server runs in the same process,
+ * so its allocations are included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+    @Param({"1000", "100000"})
+    public int keys;
+
+    @Param({"1", "5"})
+    public int languages;
+
+    @Param({"cold", "warm", "notModified"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean bulkFetch;
+
+    private MockTolgeeServer server;
+    private OkHttpClient httpClient;
+    private TolgeeClient client;
+    private Storage storage;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new MockTolgeeServer(languages, keys);
+        httpClient = new OkHttpClient.Builder().build();
+        client = new Retrofit.Builder()
+              .client(httpClient)
+              .baseUrl(server.endpoint())
+              .addConverterFactory(JacksonConverterFactory.create(new ObjectMapper()))
+              .build()
+              .create(TolgeeClient.class);
+
+        storage = storage();
+        storage.refreshProject(client, 1).join();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        if (mode.equals("cold")) storage = storage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+        server.close();
+    }
+
+    @Benchmark
+    public Project refreshProject() {
+        return storage.refreshProject(client, 1).join();
+    }
+
+    private Storage storage() {
+        boolean incremental = mode.equals("notModified");
+        return Storage.builder(List.of(1)).incrementalRefresh(incremental).bulkFetch(bulkFetch).build();
+    }
+}
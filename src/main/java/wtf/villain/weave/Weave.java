@@ -3,8 +3,10 @@ package wtf.villain.weave;
 import org.jetbrains.annotations.NotNull;
 import wtf.villain.weave.builder.WeaveInstanceBuilder;
 import wtf.villain.weave.client.TolgeeClient;
+import wtf.villain.weave.client.TransferStatistics;
 import wtf.villain.weave.storage.Project;
 import wtf.villain.weave.storage.Storage;
+import wtf.villain.weave.storage.TranslationKey;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -32,8 +34,19 @@ public sealed interface Weave permits Weave.Impl {
     @NotNull
     Storage storage();
 
+    /**
+     * Gets the sizes of the responses received from Tolgee so far, by project and language.
+     *
+     * @return the transfer statistics
+     */
+    @NotNull
+    TransferStatistics transferStatistics();
+
     /**
      * Refreshes the cache in the background.
+     * <p>If a refresh is already in progress, another one is started once it has completed, so the returned future
+     * never completes with translations fetched before this call. Every call made in the meantime shares that next
+     * refresh.
      *
      * @return a future that completes when the cache is refreshed
      */
@@ -65,13 +78,27 @@ public sealed interface Weave permits Weave.Impl {
     }
 
     /**
-     * Closes the underlying client.
+     * Creates a pre-resolved handle for the given translation key.
+     * <p>Handles avoid hashing the key on every lookup and stay valid across refreshes, see {@link TranslationKey}.
+     *
+     * @param projectId the ID of the project the key belongs to
+     * @param key       the translation key
+     * @return the handle
+     */
+    @NotNull
+    default TranslationKey key(int projectId, @NotNull String key) {
+        return storage().key(projectId, key);
+    }
+
+    /**
+     * Stops refreshing automatically and closes the underlying client.
      */
     void dispose();
 
     record Impl(@NotNull TolgeeClient client,
                 @NotNull Runnable clientShutdown,
-                @NotNull Storage storage) implements Weave {
+                @NotNull Storage storage,
+                @NotNull TransferStatistics transferStatistics) implements Weave {
         @Override
         public void dispose() {
             clientShutdown.run();
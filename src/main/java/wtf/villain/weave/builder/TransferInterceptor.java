@@ -0,0 +1,305 @@
+package wtf.villain.weave.builder;
+
+import lombok.AllArgsConstructor;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.client.Transfer;
+import wtf.villain.weave.client.TransferListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requests gzip-compressed responses and reports the compressed and decompressed size of every response body.
+ * <p>OkHttp only decompresses responses on its own if it has asked for compression itself, and then hides the
+ * compressed size. This interceptor asks for compression instead and decompresses the body while it is being read,
+ * counting the bytes on both sides.
+ * <p>A translations request for several languages is reported as one transfer per language. The decompressed bytes of
+ * each language are counted exactly while the body is read, and the compressed bytes are split between the languages
+ * in the same proportion.
+ */
+@AllArgsConstructor
+final class TransferInterceptor implements Interceptor {
+
+    private final TransferListener listener;
+
+    @Override
+    public @NotNull Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+
+        // Leave requests alone that negotiate an encoding of their own, their bodies are not ours to decode.
+        boolean negotiate = request.header("Accept-Encoding") == null;
+        if (negotiate) request = request.newBuilder().header("Accept-Encoding", "gzip").build();
+
+        Response response = chain.proceed(request);
+        ResponseBody body = response.body();
+        if (body == null) return response;
+
+        String contentEncoding = response.header("Content-Encoding");
+        // Responses without a body, such as a 304, may still repeat the encoding header, but have nothing to decode.
+        boolean gzip = negotiate && "gzip".equalsIgnoreCase(contentEncoding) && hasBody(response);
+        Reporter reporter = new Reporter(request, response.code(), contentEncoding);
+
+        CountingSource compressed = new CountingSource(body.source());
+        CountingSource decompressed = gzip ? new CountingSource(new GzipSource(compressed)) : compressed;
+        reporter.sources(compressed, decompressed);
+
+        if (!gzip) {
+            return response.newBuilder()
+                  .body(ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(decompressed)))
+                  .build();
+        }
+
+        // The body we hand on is no longer encoded, so the headers describing the encoded body are dropped.
+        return response.newBuilder()
+              .removeHeader("Content-Encoding")
+              .removeHeader("Content-Length")
+              .body(ResponseBody.create(body.contentType(), -1, Okio.buffer(decompressed)))
+              .build();
+    }
+
+    /**
+     * Checks whether or not the given response has a body, the same way OkHttp does.
+     *
+     * @param response the response to check
+     * @return whether or not the response has a body
+     */
+    private static boolean hasBody(@NotNull Response response) {
+        if (response.request().method().equals("HEAD")) return false;
+
+        int code = response.code();
+        if ((code < 100 || code >= 200) && code != 204 && code != 304) return true;
+
+        // A server that sends a body anyway has to say so.
+        String contentLength = response.header("Content-Length");
+        return contentLength != null && !contentLength.equals("0") && !contentLength.equals("-1")
+              || "chunked".equalsIgnoreCase(response.header("Transfer-Encoding"));
+    }
+
+    /**
+     * Reports a transfer once its body has been exhausted or closed, whichever happens first.
+     */
+    private final class Reporter {
+
+        private final int projectId;
+        private final List<String> resources;
+        private final int statusCode;
+        @Nullable
+        private final String contentEncoding;
+
+        private CountingSource compressed;
+        private CountingSource decompressed;
+        private boolean reported;
+
+        Reporter(@NotNull Request request, int statusCode, @Nullable String contentEncoding) {
+            List<String> segments = request.url().pathSegments();
+
+            // /v2/projects/{id}/languages and /v2/projects/{id}/translations/{languages}
+            int projectId = -1;
+            List<String> resources = List.of(request.url().encodedPath());
+
+            if (segments.size() >= 4 && segments.get(0).equals("v2") && segments.get(1).equals("projects")) {
+                try {
+                    projectId = Integer.parseInt(segments.get(2));
+                    resources = segments.get(3).equals("translations") && segments.size() == 5
+                          ? List.of(segments.get(4).split(","))
+                          : List.of(segments.get(3));
+                } catch (NumberFormatException e) {
+                    projectId = -1;
+                }
+            }
+
+            this.projectId = projectId;
+            this.resources = resources;
+            this.statusCode = statusCode;
+            this.contentEncoding = contentEncoding;
+        }
+
+        void sources(@NotNull CountingSource compressed, @NotNull CountingSource decompressed) {
+            this.compressed = compressed;
+            this.decompressed = decompressed;
+            // Only the outermost source reports, the decoder may exhaust the compressed one before its last read.
+            decompressed.reporter = this;
+            if (resources.size() > 1) decompressed.languages = new LanguageCounter();
+        }
+
+        synchronized void report() {
+            if (reported) return;
+            reported = true;
+
+            if (resources.size() == 1) {
+                listener.onTransfer(new Transfer(projectId, resources.get(0), statusCode, contentEncoding, compressed.bytes, decompressed.bytes));
+                return;
+            }
+
+            long[] decompressedBytes = split(decompressed.languages.bytes(), decompressed.bytes);
+            long remaining = compressed.bytes;
+
+            for (int i = 0; i < resources.size(); i++) {
+                // The last language gets what is left, so the shares add up to the compressed size.
+                long compressedBytes = i == resources.size() - 1 ? remaining
+                      : decompressed.bytes == 0 ? compressed.bytes / resources.size()
+                      : compressed.bytes * decompressedBytes[i] / decompressed.bytes;
+                remaining -= compressedBytes;
+
+                listener.onTransfer(new Transfer(projectId, resources.get(i), statusCode, contentEncoding, compressedBytes, decompressedBytes[i]));
+            }
+        }
+
+        /**
+         * Splits the decompressed bytes between the requested languages.
+         * <p>Bytes outside of the requested languages, such as the enclosing braces, are counted towards the first
+         * one. A body that does not contain any of the requested languages, such as an error, is split evenly.
+         */
+        private long @NotNull [] split(@NotNull Map<String, Long> counted, long total) {
+            long[] bytes = new long[resources.size()];
+            long assigned = 0;
+
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = counted.getOrDefault(resources.get(i), 0L);
+                assigned += bytes[i];
+            }
+
+            if (assigned == 0) {
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = total / bytes.length;
+                }
+
+                assigned = total / bytes.length * bytes.length;
+            }
+
+            bytes[0] += total - assigned;
+            return bytes;
+        }
+    }
+
+    private static final class CountingSource extends ForwardingSource {
+
+        @Nullable
+        private Reporter reporter;
+        @Nullable
+        private LanguageCounter languages;
+        private long bytes;
+
+        CountingSource(@NotNull Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+
+            if (read == -1) {
+                if (reporter != null) reporter.report();
+            } else {
+                bytes += read;
+                // Hands the segments of the buffer to the counter without copying them.
+                if (languages != null) sink.copyTo(languages, sink.size() - read, read);
+            }
+
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (reporter != null) reporter.report();
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes of each language of a translations response ({@code {"en": {...}, "de": {...}}}).
+     * <p>Only the nesting and the strings of the JSON are tracked, so the response is not parsed twice. A language
+     * is counted from the start of its name up to the start of the next one.
+     */
+    private static final class LanguageCounter extends OutputStream {
+
+        private final Map<String, Long> bytes = new LinkedHashMap<>();
+        private final StringBuilder name = new StringBuilder();
+
+        @Nullable
+        private String language;
+        private long languageBytes;
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private boolean inName;
+        private boolean expectName;
+
+        @Override
+        public void write(int b) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (inName) {
+                        inName = false;
+                        language = name.toString();
+                    }
+                } else if (inName) {
+                    name.append((char) (b & 0xFF));
+                }
+            } else if (b == '"') {
+                inString = true;
+                if (depth == 1 && expectName) startLanguage();
+            } else if (b == '{' || b == '[') {
+                depth++;
+                expectName = depth == 1 && b == '{';
+            } else if (b == '}' || b == ']') {
+                depth--;
+            } else if (b == ',') {
+                expectName = depth == 1;
+            }
+
+            languageBytes++;
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private void startLanguage() {
+            if (language != null) bytes.merge(language, languageBytes, Long::sum);
+
+            // The bytes before the first language are not counted towards any of them.
+            language = null;
+            languageBytes = 0;
+            inName = true;
+            expectName = false;
+            name.setLength(0);
+        }
+
+        @NotNull
+        Map<String, Long> bytes() {
+            // The bytes of the last language end with the body.
+            if (language != null && !inName) {
+                bytes.merge(language, languageBytes, Long::sum);
+                language = null;
+                languageBytes = 0;
+            }
+
+            return bytes;
+        }
+    }
+}
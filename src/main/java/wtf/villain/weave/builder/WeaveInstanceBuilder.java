@@ -1,22 +1,46 @@
 package wtf.villain.weave.builder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 import wtf.villain.weave.Weave;
 import wtf.villain.weave.client.TolgeeClient;
+import wtf.villain.weave.client.TransferListener;
+import wtf.villain.weave.client.TransferStatistics;
+import wtf.villain.weave.client.WebhookListener;
+import wtf.villain.weave.storage.CatalogCache;
+import wtf.villain.weave.storage.FallbackChains;
+import wtf.villain.weave.storage.RefreshScheduler;
+import wtf.villain.weave.storage.RenderCache;
 import wtf.villain.weave.storage.Storage;
 import wtf.villain.weave.translation.process.PostProcessor;
+import wtf.villain.weave.translation.process.PreProcessor;
 import wtf.villain.weave.util.Ensure;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public final class WeaveInstanceBuilder {
 
@@ -38,9 +62,63 @@ public final class WeaveInstanceBuilder {
     @NotNull
     private Duration writeTimeout = Duration.ofSeconds(30);
 
+    @NotNull
+    private final List<PreProcessor> preProcessors = new ArrayList<>();
+
     @NotNull
     private final List<PostProcessor> processors = new ArrayList<>();
 
+    private boolean incrementalRefresh = true;
+
+    private boolean bulkFetch;
+
+    @Nullable
+    private Path cacheDirectory;
+
+    private boolean mapCatalog;
+
+    @NotNull
+    private final Map<String, List<String>> fallbacks = new HashMap<>();
+
+    @NotNull
+    private final List<String> defaultFallbacks = new ArrayList<>();
+
+    private long renderCacheWeight;
+
+    @Nullable
+    private Duration autoRefreshInterval;
+
+    private double autoRefreshJitter = 0.1;
+
+    @NotNull
+    private Duration autoRefreshMaximumBackoff = Duration.ofMinutes(15);
+
+    @Nullable
+    private InetSocketAddress webhookAddress;
+
+    @NotNull
+    private String webhookPath = "/";
+
+    @Nullable
+    private String webhookSecret;
+
+    private boolean webhookAllowUnsigned;
+
+    private int fetchParallelism = 32;
+
+    private int fetchParallelismPerHost = 8;
+
+    @Nullable
+    private ExecutorService fetchExecutor;
+
+    private boolean http2PriorKnowledge;
+
+    @Nullable
+    private TransferListener transferListener;
+
+    @NotNull
+    private Consumer<Throwable> refreshFailureHandler = WeaveInstanceBuilder::logRefreshFailure;
+
     /**
      * Sets the API key to use for the Tolgee client.
      *
@@ -115,6 +193,20 @@ public final class WeaveInstanceBuilder {
         return this;
     }
 
+    /**
+     * Adds the given translation pre-processors to the Tolgee client.
+     * <p>Pre-processors are applied once to every translation when it is refreshed, before its template is compiled,
+     * instead of every time it is formatted. See {@link PreProcessor} for more information.
+     *
+     * @param preProcessors the translation pre-processors
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder addPreProcessors(@NotNull PreProcessor... preProcessors) {
+        this.preProcessors.addAll(Arrays.asList(preProcessors));
+        return this;
+    }
+
     /**
      * Adds the given translation post processors to the Tolgee client.
      *
@@ -127,6 +219,309 @@ public final class WeaveInstanceBuilder {
         return this;
     }
 
+    /**
+     * Sets whether or not refreshes should be incremental.
+     * <p>Incremental refreshes send the {@code ETag} and {@code Last-Modified} validators of the previous refresh,
+     * so languages that have not changed are not downloaded again. Translations whose text has not changed are
+     * reused, keeping their compiled templates. Enabled by default.
+     *
+     * @param incrementalRefresh whether or not refreshes should be incremental
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder incrementalRefresh(boolean incrementalRefresh) {
+        this.incrementalRefresh = incrementalRefresh;
+        return this;
+    }
+
+    /**
+     * Sets whether or not all languages of a project should be fetched with a single request.
+     * <p>By default, every language is fetched with its own request, which lets unchanged languages be skipped on
+     * their own by {@link #incrementalRefresh(boolean) incremental refreshes}. Fetching all languages at once saves a
+     * round trip per language, which pays off on high-latency links, but downloads every language again as soon as
+     * one of them has changed. Disabled by default.
+     *
+     * @param bulkFetch whether or not all languages should be fetched with a single request
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder bulkFetch(boolean bulkFetch) {
+        this.bulkFetch = bulkFetch;
+        return this;
+    }
+
+    /**
+     * Sets the directory in which fetched projects are cached on disk.
+     * <p>When every project is found in the cache, building completes immediately with the cached translations
+     * and the projects are refreshed from Tolgee in the background. This also allows starting while Tolgee is
+     * unreachable, in which case the failed background refresh is reported to the
+     * {@link #refreshFailureHandler(Consumer) refresh failure handler}. Disabled by default.
+     *
+     * @param cacheDirectory the cache directory
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder cacheDirectory(@NotNull Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        return this;
+    }
+
+    /**
+     * Sets whether or not refreshed projects should be served from their memory-mapped cache files.
+     * <p>Translations are then decoded lazily on first access instead of being kept on the heap, and several
+     * processes using the same cache directory share the cached catalogs through the page cache. Projects loaded
+     * from the cache on startup are always served this way. Requires a {@link #cacheDirectory(Path) cache directory}.
+     * Disabled by default.
+     *
+     * @param mapCatalog whether or not refreshed projects should be served from the cache files
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder mapCatalog(boolean mapCatalog) {
+        this.mapCatalog = mapCatalog;
+        return this;
+    }
+
+    /**
+     * Sets the languages to fall back to when a key is not translated in the given language.
+     * <p>Chains are followed transitively, so {@code fallback("de-AT", "de")} and {@code fallback("de", "en")} make
+     * {@code de-AT} fall back to {@code de} first and to {@code en} afterwards. Fallbacks are resolved once per
+     * refresh, so lookups that fall back are as fast as any other lookup. Projects served from memory-mapped catalogs
+     * walk the chain on lookup instead, see {@link #mapCatalog(boolean)}.
+     *
+     * @param languageTag  the tag of the language
+     * @param fallbackTags the tags of the fallback languages, in order of preference
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder fallback(@NotNull String languageTag, @NotNull String... fallbackTags) {
+        this.fallbacks.put(languageTag, List.of(fallbackTags));
+        return this;
+    }
+
+    /**
+     * Sets the languages to fall back to for every language that has no chain of its own, see
+     * {@link #fallback(String, String...)}. This is usually the base language of the projects.
+     *
+     * @param fallbackTags the tags of the fallback languages, in order of preference
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder defaultFallback(@NotNull String... fallbackTags) {
+        this.defaultFallbacks.clear();
+        this.defaultFallbacks.addAll(List.of(fallbackTags));
+        return this;
+    }
+
+    /**
+     * Sets the maximum weight of the render cache, which memoises formatted translations by translation and
+     * arguments.
+     * <p>This is useful when the same message is formatted with the same arguments many times, for example when it
+     * is broadcast to every player. The weight is roughly the number of cached characters. Only formatting through
+     * {@link wtf.villain.weave.storage.TranslationKey#format} uses the cache. Disabled by default.
+     *
+     * @param maximumWeight the maximum weight, or {@code 0} to disable the cache
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder renderCache(long maximumWeight) {
+        this.renderCacheWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * Enables refreshing every project periodically in the background.
+     * <p>Refreshes never overlap. Calls to {@link Weave#refresh()} while a refresh is in progress queue a single
+     * further refresh, which runs once the current one has completed and is shared by every call made in the
+     * meantime. See {@link #autoRefreshJitter(double)} and {@link #autoRefreshMaximumBackoff(Duration)}. Disabled by
+     * default.
+     *
+     * @param interval the delay between two refreshes
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder autoRefresh(@NotNull Duration interval) {
+        this.autoRefreshInterval = interval;
+        return this;
+    }
+
+    /**
+     * Sets the fraction by which the delay between two automatic refreshes is randomly lengthened or shortened.
+     * <p>This keeps many instances started at the same time from all querying Tolgee at the same instant. Defaults
+     * to {@code 0.1}, which spreads the refreshes over 20% of the interval.
+     *
+     * @param jitter the jitter, between 0 and 1
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder autoRefreshJitter(double jitter) {
+        this.autoRefreshJitter = jitter;
+        return this;
+    }
+
+    /**
+     * Sets the maximum delay between two automatic refreshes after refreshes have failed.
+     * <p>The delay is doubled for every consecutive failure, up to this maximum, and reset after the next
+     * successful refresh. Defaults to 15 minutes.
+     *
+     * @param maximumBackoff the maximum delay
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder autoRefreshMaximumBackoff(@NotNull Duration maximumBackoff) {
+        this.autoRefreshMaximumBackoff = maximumBackoff;
+        return this;
+    }
+
+    /**
+     * Enables receiving Tolgee webhooks on the given address, so changed projects are refreshed right away.
+     * <p>Configure a webhook in Tolgee that points to this address and path. See {@link WebhookListener} for more
+     * information. Disabled by default.
+     * <p>Unless a {@link #webhookSecret(String) secret} is set, anyone who can reach the listener can trigger
+     * refreshes, so only loopback addresses are accepted without one. Use {@link #webhookAllowUnsigned()} to listen on
+     * any other address without a secret, for example behind a proxy that authenticates the requests itself.
+     *
+     * @param address the address to listen on
+     * @param path    the path webhooks are posted to
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder webhook(@NotNull InetSocketAddress address, @NotNull String path) {
+        this.webhookAddress = address;
+        this.webhookPath = path;
+        return this;
+    }
+
+    /**
+     * Enables receiving Tolgee webhooks on the given port of the loopback address, see
+     * {@link #webhook(InetSocketAddress, String)}.
+     * <p>Use {@link #webhook(InetSocketAddress, String)} to listen on other interfaces.
+     *
+     * @param port the port to listen on
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder webhook(int port) {
+        return webhook(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), "/");
+    }
+
+    /**
+     * Sets the secret of the Tolgee webhook, which is used to verify that webhooks have been sent by Tolgee.
+     * <p>Required unless the webhook listener is bound to a loopback address or {@link #webhookAllowUnsigned()} is
+     * set.
+     *
+     * @param secret the webhook secret
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder webhookSecret(@NotNull String secret) {
+        this.webhookSecret = secret;
+        return this;
+    }
+
+    /**
+     * Allows the webhook listener to accept unsigned webhooks on addresses other than loopback addresses.
+     * <p>Anyone who can reach the listener can then trigger refreshes, so only use this if the listener is protected
+     * otherwise, for example by a firewall or an authenticating proxy.
+     *
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder webhookAllowUnsigned() {
+        this.webhookAllowUnsigned = true;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests to Tolgee that may be in flight at the same time.
+     * <p>Refreshing a project fetches every language with its own request. Requests beyond this limit are queued
+     * until a running one completes, and queued requests do not count against the read timeout. Defaults to 32.
+     *
+     * @param maximumRequests the maximum number of concurrent requests
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder fetchParallelism(int maximumRequests) {
+        this.fetchParallelism = maximumRequests;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests that may be in flight to a single host at the same time, see
+     * {@link #fetchParallelism(int)}.
+     * <p>Over HTTP/2, all requests to a host are multiplexed over a single connection, so this limits the number of
+     * concurrent streams on it. Defaults to 8.
+     *
+     * @param maximumRequestsPerHost the maximum number of concurrent requests per host
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder fetchParallelismPerHost(int maximumRequestsPerHost) {
+        this.fetchParallelismPerHost = maximumRequestsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets the executor requests to Tolgee are run on, and on which fetched translations are parsed.
+     * <p>By default, Weave runs its requests on its own pool of daemon threads, so refreshing large projects never
+     * competes with other HTTP clients of the application. The given executor is not shut down when Weave is
+     * disposed.
+     *
+     * @param executor the executor
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder fetchExecutor(@NotNull ExecutorService executor) {
+        this.fetchExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Sets whether or not HTTP/2 should be used without negotiating it first.
+     * <p>HTTPS endpoints negotiate HTTP/2 on their own whenever the server supports it, and then multiplex every
+     * request over a single connection. Enable this for plain HTTP endpoints that are known to speak HTTP/2, for
+     * example Tolgee behind a sidecar proxy. Such endpoints can no longer be reached over HTTP/1.1. Disabled by
+     * default.
+     *
+     * @param http2PriorKnowledge whether or not HTTP/2 should be used without negotiating it
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder http2PriorKnowledge(boolean http2PriorKnowledge) {
+        this.http2PriorKnowledge = http2PriorKnowledge;
+        return this;
+    }
+
+    /**
+     * Sets a listener that is notified of the compressed and decompressed size of every response received from
+     * Tolgee, for example to export them as metrics.
+     * <p>Responses are always requested gzip-compressed. The totals by project and language are also available
+     * through {@link Weave#transferStatistics()}.
+     *
+     * @param listener the listener
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder transferListener(@NotNull TransferListener listener) {
+        this.transferListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the handler that is called whenever a refresh fails that nobody is waiting for, such as automatic,
+     * webhook-triggered or background refreshes.
+     * <p>The translations that have been published before stay in place. By default, failures are logged as warnings
+     * through {@link System.Logger}.
+     *
+     * @param handler the handler, which is called with the cause of the failure
+     * @return the builder
+     */
+    @NotNull
+    public WeaveInstanceBuilder refreshFailureHandler(@NotNull Consumer<Throwable> handler) {
+        this.refreshFailureHandler = handler;
+        return this;
+    }
+
     /**
      * Builds the Tolgee client synchronously.
      *
@@ -153,11 +548,40 @@ public final class WeaveInstanceBuilder {
         Ensure.that(connectTimeout.toMillis() > 0, "connectTimeout must be greater than zero");
         Ensure.that(readTimeout.toMillis() > 0, "readTimeout must be greater than zero");
         Ensure.that(writeTimeout.toMillis() > 0, "writeTimeout must be greater than zero");
+        Ensure.that(!mapCatalog || cacheDirectory != null, "mapCatalog requires cacheDirectory to be set");
+        Ensure.that(renderCacheWeight >= 0, "renderCache must not be negative");
+        Ensure.that(autoRefreshInterval == null || autoRefreshInterval.toMillis() > 0, "autoRefresh must be greater than zero");
+        Ensure.that(autoRefreshJitter >= 0 && autoRefreshJitter <= 1, "autoRefreshJitter must be between 0 and 1");
+        Ensure.argumentIsSet(autoRefreshMaximumBackoff, "autoRefreshMaximumBackoff");
+        Ensure.that(webhookPath.startsWith("/"), "webhook path must start with /");
+        Ensure.that(webhookAddress == null || webhookSecret != null || webhookAllowUnsigned
+                    || webhookAddress.getAddress() != null && webhookAddress.getAddress().isLoopbackAddress(),
+              "webhook requires webhookSecret unless it listens on a loopback address or webhookAllowUnsigned is set");
+        Ensure.argumentIsSet(refreshFailureHandler, "refreshFailureHandler");
+        Ensure.that(fetchParallelism > 0, "fetchParallelism must be greater than zero");
+        Ensure.that(fetchParallelismPerHost > 0, "fetchParallelismPerHost must be greater than zero");
+        Ensure.that(!http2PriorKnowledge || endpoint.startsWith("http://"), "http2PriorKnowledge requires a plain HTTP endpoint");
 
         CompletableFuture<Weave> future = new CompletableFuture<>();
 
+        TransferStatistics transferStatistics = new TransferStatistics();
+        TransferListener transferListener = this.transferListener;
+
+        boolean ownsFetchExecutor = fetchExecutor == null;
+        Dispatcher dispatcher = new Dispatcher(ownsFetchExecutor ? newFetchExecutor() : fetchExecutor);
+        dispatcher.setMaxRequests(fetchParallelism);
+        dispatcher.setMaxRequestsPerHost(fetchParallelismPerHost);
+
         OkHttpClient httpClient = new OkHttpClient.Builder()
+              .dispatcher(dispatcher)
+              .protocols(http2PriorKnowledge
+                    ? List.of(Protocol.H2_PRIOR_KNOWLEDGE)
+                    : List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
               .addInterceptor(new TolgeeInterceptor(apiKey))
+              .addInterceptor(new TransferInterceptor(transferListener == null ? transferStatistics : transfer -> {
+                  transferStatistics.onTransfer(transfer);
+                  transferListener.onTransfer(transfer);
+              }))
               .connectTimeout(connectTimeout)
               .readTimeout(readTimeout)
               .writeTimeout(writeTimeout)
@@ -170,24 +594,97 @@ public final class WeaveInstanceBuilder {
               .build()
               .create(TolgeeClient.class);
 
-        Storage storage = new Storage(projectIds, processors);
+        Storage storage = Storage.builder(projectIds)
+              .preProcessors(preProcessors)
+              .postProcessors(processors)
+              .incrementalRefresh(incrementalRefresh)
+              .bulkFetch(bulkFetch)
+              .cache(cacheDirectory == null ? null : new CatalogCache(cacheDirectory))
+              .mapCatalog(mapCatalog)
+              .fallbacks(new FallbackChains(fallbacks, defaultFallbacks))
+              .renderCache(renderCacheWeight == 0 ? null : new RenderCache(renderCacheWeight))
+              .build();
+
+        Consumer<Throwable> refreshFailureHandler = this.refreshFailureHandler;
+
+        RefreshScheduler scheduler = autoRefreshInterval == null ? null : new RefreshScheduler(
+              () -> storage.refresh(tolgeeClient).whenComplete((__, throwable) -> {
+                  if (throwable != null) refreshFailureHandler.accept(throwable);
+              }),
+              autoRefreshInterval,
+              autoRefreshJitter,
+              autoRefreshMaximumBackoff);
+
+        WebhookListener webhookListener;
+
+        try {
+            webhookListener = webhookAddress == null ? null : new WebhookListener(
+                  webhookAddress,
+                  webhookPath,
+                  webhookSecret,
+                  Set.copyOf(projectIds),
+                  projectId -> storage.refreshProject(tolgeeClient, projectId),
+                  refreshFailureHandler);
+        } catch (IOException e) {
+            // Nothing has been started yet, but the threads created so far would otherwise never be released.
+            if (scheduler != null) scheduler.close();
+            if (ownsFetchExecutor) dispatcher.executorService().shutdown();
+            throw new UncheckedIOException("Could not listen for webhooks on " + webhookAddress, e);
+        }
+
+        Runnable startPushAndPoll = () -> {
+            if (scheduler != null) scheduler.start();
+            if (webhookListener != null) webhookListener.start();
+        };
+
+        Weave weave = new Weave.Impl(
+              tolgeeClient,
+              () -> {
+                  if (scheduler != null) scheduler.close();
+                  if (webhookListener != null) webhookListener.close();
+                  if (ownsFetchExecutor) dispatcher.executorService().shutdown();
+                  httpClient.connectionPool().evictAll();
+              },
+              storage,
+              transferStatistics
+        );
+
+        if (storage.loadCache()) {
+            // Serve the cached projects right away and revalidate them in the background.
+            // If Tolgee is unreachable, the cached projects simply stay in place until the next refresh.
+            future.complete(weave);
+            storage.refresh(tolgeeClient).whenComplete((__, throwable) -> {
+                if (throwable != null) refreshFailureHandler.accept(throwable);
+            });
+            startPushAndPoll.run();
+            return future;
+        }
 
         storage.refresh(tolgeeClient).whenComplete((__, throwable) -> {
             if (throwable != null) {
+                weave.dispose();
                 future.completeExceptionally(throwable);
             } else {
-                future.complete(new Weave.Impl(
-                      tolgeeClient,
-                      () -> {
-                          httpClient.dispatcher().executorService().shutdown();
-                          httpClient.connectionPool().evictAll();
-                      },
-                      storage
-                ));
+                startPushAndPoll.run();
+                future.complete(weave);
             }
         });
 
         return future;
     }
 
+    private static void logRefreshFailure(@NotNull Throwable throwable) {
+        System.getLogger(Weave.class.getName()).log(System.Logger.Level.WARNING, "Could not refresh translations", throwable);
+    }
+
+    @NotNull
+    private static ExecutorService newFetchExecutor() {
+        // Same as the default executor of OkHttp, the dispatcher bounds the number of threads in use.
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Weave Fetch #" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
@@ -1,12 +1,17 @@
 package wtf.villain.weave.client;
 
+import okhttp3.ResponseBody;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Path;
+import retrofit2.http.Streaming;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -21,6 +26,14 @@ public interface TolgeeClient {
     @GET("/v2/projects/{id}/translations/{language}?structureDelimiter")
     Call<Map<String, Map<String, String>>> getTranslations(@Path("id") int id, @Path("language") String language);
 
+    @NotNull
+    @Streaming
+    @GET("/v2/projects/{id}/translations/{language}?structureDelimiter")
+    Call<ResponseBody> getTranslationsStream(@Path("id") int id,
+                                            @Path("language") String language,
+                                            @Nullable @Header("If-None-Match") String etag,
+                                            @Nullable @Header("If-Modified-Since") String lastModified);
+
     /**
      * Queries the list of supported languages for the given project.
      *
@@ -98,4 +111,63 @@ public interface TolgeeClient {
         return future;
     }
 
+    /**
+     * Streams the translations for the given project and language to the given consumer, unless they have not been
+     * modified since the given validators were issued.
+     * <p>The response body is parsed token by token while it is being received, so the translations are never
+     * materialised as a whole. The consumer is called on a network thread.
+     * <p>Several languages may be fetched at once by joining their tags with {@code ,}, in which case the response
+     * and its validators cover all of them.
+     *
+     * @param client     the Tolgee client
+     * @param projectId  the project ID
+     * @param language   the language, or several comma-separated languages
+     * @param validators the validators of the previous response, or {@link TranslationsResponse.Validators#NONE}
+     * @param consumer   the consumer to pass each translation to
+     * @return a future that completes once every translation has been passed to the consumer, or with a not modified
+     * response
+     */
+    @NotNull
+    default CompletableFuture<TranslationsResponse> queryTranslations(@NotNull TolgeeClient client, int projectId, @NotNull String language, @NotNull TranslationsResponse.Validators validators, @NotNull TranslationsConsumer consumer) {
+        CompletableFuture<TranslationsResponse> future = new CompletableFuture<>();
+
+        client.getTranslationsStream(projectId, language, validators.etag(), validators.lastModified()).enqueue(new Callback<>() {
+            @Override
+            public void onResponse(@NotNull Call<ResponseBody> call, @NotNull Response<ResponseBody> response) {
+                if (response.code() == 304) {
+                    future.complete(new TranslationsResponse(false, validators));
+                    return;
+                }
+
+                if (!response.isSuccessful()) {
+                    future.completeExceptionally(new RuntimeException("Unsuccessful request, status code is " + response.code()));
+                    return;
+                }
+
+                try (ResponseBody body = response.body()) {
+                    if (body == null) {
+                        future.completeExceptionally(new RuntimeException("Invalid response body received"));
+                        return;
+                    }
+
+                    TranslationsReader.read(body.byteStream(), consumer);
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(new RuntimeException("Invalid response body received", e));
+                    return;
+                }
+
+                future.complete(new TranslationsResponse(true, new TranslationsResponse.Validators(
+                      response.headers().get("ETag"),
+                      response.headers().get("Last-Modified"))));
+            }
+
+            @Override
+            public void onFailure(@NotNull Call<ResponseBody> call, @NotNull Throwable throwable) {
+                future.completeExceptionally(new RuntimeException("Request failed", throwable));
+            }
+        });
+
+        return future;
+    }
+
 }
@@ -0,0 +1,35 @@
+package wtf.villain.weave.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The size of a single response received from Tolgee.
+ * <p>Only response bodies are counted, without headers or TLS overhead. A translations request for several languages
+ * is reported as one transfer per language, each with its share of the response.
+ *
+ * @param projectId         the ID of the project the request was for, or {@code -1} if it was not for a project
+ * @param resource          {@code languages} for a languages request, the language tag for a translations request, or
+ *                          the path of any other request
+ * @param statusCode        the HTTP status code of the response
+ * @param contentEncoding   the {@code Content-Encoding} of the response, or {@code null} if it did not have one
+ * @param compressedBytes   the number of bytes received
+ * @param decompressedBytes the number of bytes after decompressing them, equal to {@code compressedBytes} if the
+ *                          response was not decompressed
+ */
+public record Transfer(int projectId,
+                       @NotNull String resource,
+                       int statusCode,
+                       @Nullable String contentEncoding,
+                       long compressedBytes,
+                       long decompressedBytes) {
+
+    /**
+     * Checks whether or not the response was compressed, according to its {@code Content-Encoding}.
+     *
+     * @return whether or not the response was compressed
+     */
+    public boolean compressed() {
+        return contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity");
+    }
+}
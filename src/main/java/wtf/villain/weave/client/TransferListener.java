@@ -0,0 +1,19 @@
+package wtf.villain.weave.client;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the size of every response received from Tolgee.
+ */
+@FunctionalInterface
+public interface TransferListener {
+
+    /**
+     * Called once the body of a response has been read or discarded.
+     * <p>This is called on a network thread, so implementations should return quickly.
+     *
+     * @param transfer the size of the response
+     */
+    void onTransfer(@NotNull Transfer transfer);
+
+}
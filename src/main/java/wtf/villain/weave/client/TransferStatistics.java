@@ -0,0 +1,116 @@
+package wtf.villain.weave.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the sizes of the responses received from Tolgee, by project and resource.
+ * <p>This can be used to monitor how much bandwidth refreshing each project and language takes. Statistics are
+ * thread-safe and never reset.
+ */
+public final class TransferStatistics implements TransferListener {
+
+    private final Map<Integer, Map<String, Counters>> projects = new ConcurrentHashMap<>();
+
+    @Override
+    public void onTransfer(@NotNull Transfer transfer) {
+        projects.computeIfAbsent(transfer.projectId(), __ -> new ConcurrentHashMap<>())
+              .computeIfAbsent(transfer.resource(), __ -> new Counters())
+              .add(transfer);
+    }
+
+    /**
+     * Gets the totals of every response received so far.
+     *
+     * @return the totals
+     */
+    @NotNull
+    public Totals total() {
+        Totals total = Totals.NONE;
+
+        for (int projectId : projects.keySet()) {
+            total = total.plus(total(projectId));
+        }
+
+        return total;
+    }
+
+    /**
+     * Gets the totals of every response received so far for the given project.
+     *
+     * @param projectId the ID of the project
+     * @return the totals
+     */
+    @NotNull
+    public Totals total(int projectId) {
+        return totals(projectId).values().stream().reduce(Totals.NONE, Totals::plus);
+    }
+
+    /**
+     * Gets the totals of every response received so far for the given project, by resource.
+     * <p>Resources are {@code languages} and the requested language tags, see {@link Transfer#resource()}.
+     *
+     * @param projectId the ID of the project
+     * @return the totals keyed by resource, sorted by resource
+     */
+    @NotNull
+    public Map<String, Totals> totals(int projectId) {
+        Map<String, Totals> totals = new TreeMap<>();
+        projects.getOrDefault(projectId, Map.of()).forEach((resource, counters) -> totals.put(resource, counters.totals()));
+        return totals;
+    }
+
+    /**
+     * The accumulated sizes of several responses.
+     *
+     * @param requests          the number of responses, counting a response for several languages once per language
+     * @param compressedBytes   the number of bytes received
+     * @param decompressedBytes the number of bytes after decompressing them
+     */
+    public record Totals(long requests, long compressedBytes, long decompressedBytes) {
+
+        /**
+         * Totals without any responses.
+         */
+        public static final Totals NONE = new Totals(0, 0, 0);
+
+        /**
+         * Gets the ratio between the decompressed and the received bytes.
+         *
+         * @return the compression ratio, or {@code 1} if nothing has been received
+         */
+        public double compressionRatio() {
+            return compressedBytes == 0 ? 1 : (double) decompressedBytes / compressedBytes;
+        }
+
+        @NotNull
+        Totals plus(@NotNull Totals other) {
+            return new Totals(
+                  requests + other.requests,
+                  compressedBytes + other.compressedBytes,
+                  decompressedBytes + other.decompressedBytes);
+        }
+    }
+
+    private static final class Counters {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder compressedBytes = new LongAdder();
+        private final LongAdder decompressedBytes = new LongAdder();
+
+        void add(@NotNull Transfer transfer) {
+            requests.increment();
+            compressedBytes.add(transfer.compressedBytes());
+            decompressedBytes.add(transfer.decompressedBytes());
+        }
+
+        @NotNull
+        Totals totals() {
+            return new Totals(requests.sum(), compressedBytes.sum(), decompressedBytes.sum());
+        }
+    }
+}
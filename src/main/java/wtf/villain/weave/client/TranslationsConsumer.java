@@ -0,0 +1,21 @@
+package wtf.villain.weave.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives translations one by one while a translations response is being parsed.
+ */
+@FunctionalInterface
+public interface TranslationsConsumer {
+
+    /**
+     * Accepts a single translation.
+     *
+     * @param language the language tag of the translation
+     * @param key      the translation key, with nested keys joined by {@code .}
+     * @param value    the translated text, or {@code null} if the key is not translated in the given language
+     */
+    void accept(@NotNull String language, @NotNull String key, @Nullable String value);
+
+}
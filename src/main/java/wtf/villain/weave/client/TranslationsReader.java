@@ -0,0 +1,96 @@
+package wtf.villain.weave.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads a translations response ({@code {"en": {"key": "value", ...}, ...}}) token by token.
+ */
+public final class TranslationsReader {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final char KEY_DELIMITER = '.';
+
+    private TranslationsReader() {
+    }
+
+    /**
+     * Reads the given translations response and passes each translation to the given consumer.
+     * <p>Nested objects (as returned when a structure delimiter is used) are flattened into keys joined by
+     * {@code .}. Nesting is tracked with an explicit stack, so deeply nested responses cannot overflow the call stack.
+     *
+     * @param in       the response body
+     * @param consumer the consumer to pass each translation to
+     * @throws IOException if the response could not be read or is malformed
+     */
+    public static void read(@NotNull InputStream in, @NotNull TranslationsConsumer consumer) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String language = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if (token == JsonToken.VALUE_NULL) continue;
+
+                expect(parser, token, JsonToken.START_OBJECT);
+                readLanguage(parser, language, consumer);
+            }
+
+            expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+        }
+    }
+
+    private static void readLanguage(@NotNull JsonParser parser, @NotNull String language, @NotNull TranslationsConsumer consumer) throws IOException {
+        StringBuilder prefix = new StringBuilder();
+        int[] prefixLengths = new int[8];
+        int depth = 0;
+
+        while (true) {
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.END_OBJECT) {
+                if (depth == 0) return;
+
+                prefix.setLength(prefixLengths[--depth]);
+                continue;
+            }
+
+            expect(parser, token, JsonToken.FIELD_NAME);
+            String name = parser.getCurrentName();
+
+            switch (parser.nextToken()) {
+                case START_OBJECT -> {
+                    if (depth == prefixLengths.length) {
+                        prefixLengths = Arrays.copyOf(prefixLengths, depth * 2);
+                    }
+
+                    prefixLengths[depth++] = prefix.length();
+                    prefix.append(name).append(KEY_DELIMITER);
+                }
+                case VALUE_NULL -> consumer.accept(language, key(prefix, name), null);
+                case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT, VALUE_TRUE, VALUE_FALSE ->
+                      consumer.accept(language, key(prefix, name), parser.getText());
+                default -> throw new JsonParseException(parser, "Unexpected value for translation " + key(prefix, name));
+            }
+        }
+    }
+
+    @NotNull
+    private static String key(@NotNull StringBuilder prefix, @NotNull String name) {
+        return prefix.isEmpty() ? name : prefix + name;
+    }
+
+    private static void expect(@NotNull JsonParser parser, JsonToken actual, @NotNull JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but got " + actual);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package wtf.villain.weave.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of a (possibly conditional) translations request.
+ *
+ * <p>The translations themselves are streamed to a {@link TranslationsConsumer} while the response is received.
+ *
+ * @param modified   whether or not the server sent new translations, {@code false} if it reported them as not
+ *                   modified since the given validators were issued
+ * @param validators the validators to send with the next request for the same translations
+ */
+public record TranslationsResponse(boolean modified, @NotNull Validators validators) {
+
+    /**
+     * The HTTP cache validators of a translations response.
+     *
+     * @param etag         the value of the {@code ETag} header, if any
+     * @param lastModified the value of the {@code Last-Modified} header, if any
+     */
+    public record Validators(@Nullable String etag, @Nullable String lastModified) {
+
+        /**
+         * Validators that never match, used when nothing has been fetched yet.
+         */
+        public static final Validators NONE = new Validators(null, null);
+
+    }
+}
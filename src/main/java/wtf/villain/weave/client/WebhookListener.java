@@ -0,0 +1,222 @@
+package wtf.villain.weave.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A small embedded HTTP server that receives Tolgee webhooks and refreshes the affected project right away, instead
+ * of waiting for the next poll.
+ * <p>Tolgee posts a JSON payload for every activity, and the project is read from {@code activityData.projectId}.
+ * Webhooks for projects that are not configured are acknowledged and ignored. Refreshes are incremental, so only the
+ * languages that have actually changed are downloaded again.
+ * <p>If a secret is configured, the {@code Tolgee-Signature} header is verified: it holds the timestamp and the
+ * HMAC-SHA256 of {@code "<timestamp>.<payload>"}, and requests with a missing or invalid signature, or a timestamp
+ * older than five minutes, are rejected. Without a secret, anyone who can reach the listener can trigger refreshes,
+ * so it should only be bound to an address that Tolgee alone can reach.
+ */
+public final class WebhookListener implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAXIMUM_PAYLOAD_SIZE = 1024 * 1024;
+    private static final long SIGNATURE_TOLERANCE_MILLIS = Duration.ofMinutes(5).toMillis();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Set<Integer> projectIds;
+    private final IntFunction<CompletableFuture<?>> refreshProject;
+    private final Consumer<Throwable> failureHandler;
+    private final byte @Nullable [] secret;
+
+    /**
+     * Creates a listener, which does not accept requests until it is {@link #start() started}.
+     *
+     * @param address        the address to listen on, use port {@code 0} for any free port
+     * @param path           the path webhooks are posted to, for example {@code /tolgee}
+     * @param secret         the webhook secret configured in Tolgee, or {@code null} to accept unsigned webhooks
+     * @param projectIds     the IDs of the projects to refresh
+     * @param refreshProject the function that refreshes a project
+     * @param failureHandler the handler that is called with the cause of every failed refresh
+     * @throws IOException if the server could not be bound to the given address
+     */
+    public WebhookListener(@NotNull InetSocketAddress address,
+                           @NotNull String path,
+                           @Nullable String secret,
+                           @NotNull Set<Integer> projectIds,
+                           @NotNull IntFunction<CompletableFuture<?>> refreshProject,
+                           @NotNull Consumer<Throwable> failureHandler) throws IOException {
+        this.projectIds = Set.copyOf(projectIds);
+        this.refreshProject = refreshProject;
+        this.failureHandler = failureHandler;
+        this.secret = secret == null ? null : secret.getBytes(StandardCharsets.UTF_8);
+
+        // The server is bound first, so that no thread is left behind if the address is already in use.
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Weave Webhook Listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server.setExecutor(executor);
+        this.server.createContext(path, this::handle);
+    }
+
+    /**
+     * Starts accepting webhooks.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Gets the address this listener is bound to.
+     *
+     * @return the address
+     */
+    @NotNull
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting webhooks. Refreshes that have already been triggered are not cancelled.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405);
+                return;
+            }
+
+            byte[] payload;
+
+            try (InputStream body = exchange.getRequestBody()) {
+                payload = body.readNBytes(MAXIMUM_PAYLOAD_SIZE + 1);
+            }
+
+            if (payload.length > MAXIMUM_PAYLOAD_SIZE) {
+                respond(exchange, 413);
+                return;
+            }
+
+            if (secret != null && !verify(exchange.getRequestHeaders().getFirst("Tolgee-Signature"), payload)) {
+                respond(exchange, 401);
+                return;
+            }
+
+            int projectId;
+
+            try {
+                JsonNode root = MAPPER.readTree(payload);
+                JsonNode project = root.path("activityData").path("projectId");
+                if (project.isMissingNode()) project = root.path("projectId");
+
+                if (!project.canConvertToInt()) {
+                    respond(exchange, 400);
+                    return;
+                }
+
+                projectId = project.intValue();
+            } catch (IOException e) {
+                respond(exchange, 400);
+                return;
+            }
+
+            // Tolgee only needs to know the webhook has arrived, the refresh happens in the background.
+            respond(exchange, projectIds.contains(projectId) ? 200 : 202);
+            if (projectIds.contains(projectId)) refresh(projectId);
+        }
+    }
+
+    private void refresh(int projectId) {
+        CompletableFuture<?> future;
+
+        try {
+            future = refreshProject.apply(projectId);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) failureHandler.accept(throwable);
+        });
+    }
+
+    /**
+     * Verifies the given signature header against the payload.
+     *
+     * @param header  the value of the {@code Tolgee-Signature} header
+     * @param payload the payload
+     * @return whether or not the signature is valid
+     */
+    private boolean verify(@Nullable String header, byte @NotNull [] payload) {
+        if (header == null) return false;
+
+        try {
+            JsonNode signature = MAPPER.readTree(header);
+            long timestamp = signature.path("timestamp").asLong(-1);
+            String expected = signature.path("signature").asText("");
+
+            if (Math.abs(System.currentTimeMillis() - timestamp) > SIGNATURE_TOLERANCE_MILLIS) return false;
+
+            return MessageDigest.isEqual(
+                  sign(secret, timestamp, payload).getBytes(StandardCharsets.US_ASCII),
+                  expected.getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Computes the signature Tolgee sends for the given payload.
+     *
+     * @param secret    the webhook secret
+     * @param timestamp the timestamp of the signature, in milliseconds since the epoch
+     * @param payload   the payload
+     * @return the signature, hex encoded
+     */
+    @NotNull
+    static String sign(byte @NotNull [] secret, long timestamp, byte @NotNull [] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            mac.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (GeneralSecurityException e) {
+            // Every Java platform is required to support HmacSHA256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(@NotNull HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
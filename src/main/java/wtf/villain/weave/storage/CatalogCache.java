@@ -0,0 +1,257 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.client.TranslationsResponse;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores projects on disk, so they are available immediately on the next start, even if Tolgee is unreachable.
+ * <p>Each project is stored in its own compiled catalog file: an interned key table shared by all languages, one
+ * offset index per language and the UTF-8 encoded translations. Loaded projects are served directly from the
+ * memory-mapped file and only decode the translations that are actually used, so most of the catalog stays off-heap
+ * and is shared through the page cache by every process reading the same file.
+ * <p>Files are replaced atomically, so a crash while saving never leaves a partially written project behind. Files
+ * that are still mapped by a loaded project stay readable after they have been replaced.
+ */
+public final class CatalogCache {
+
+    private static final int MAGIC = 0x57564543; // "WVEC"
+    private static final int FORMAT_VERSION = 2;
+    private static final int MISSING = -1;
+
+    @NotNull
+    private final Path directory;
+
+    public CatalogCache(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the directory the projects are stored in.
+     *
+     * @return the directory
+     */
+    @NotNull
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Loads the given project by mapping its file into memory.
+     *
+     * @param projectId the ID of the project to load
+     * @param processor the processor to use for the loaded translations
+     * @return the project, or {@code null} if it has not been stored yet or was stored in an older format
+     * @throws IOException if the project could not be read
+     */
+    @Nullable
+    public Project load(int projectId, @NotNull WeaveProcessor processor) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file(projectId), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel has been closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getInt() != projectId) {
+                return null;
+            }
+
+            int version = buffer.getInt();
+            int languageCount = buffer.getInt();
+            int keyCount = buffer.getInt();
+
+            List<String> tags = new ArrayList<>(languageCount);
+            List<Integer> sizes = new ArrayList<>(languageCount);
+            Map<String, Language> supportedLanguages = new HashMap<>();
+            Map<String, TranslationsResponse.Validators> validators = new HashMap<>();
+
+            for (int i = 0; i < languageCount; i++) {
+                String tag = readString(buffer);
+                String name = readString(buffer);
+                supportedLanguages.put(tag, Language.findOrCreate(tag, name));
+                validators.put(tag, new TranslationsResponse.Validators(readNullableString(buffer), readNullableString(buffer)));
+                tags.add(tag);
+                sizes.add(buffer.getInt());
+            }
+
+            MappedCatalog catalog = MappedCatalog.open(buffer, languageCount, keyCount, buffer.position());
+            Map<String, Map<String, Translation>> translations = new HashMap<>();
+
+            for (int i = 0; i < languageCount; i++) {
+                translations.put(tags.get(i), new MappedTranslations(catalog, i, sizes.get(i), processor));
+            }
+
+            return new Project(projectId, Map.copyOf(supportedLanguages), Map.copyOf(translations), Map.copyOf(validators), version);
+        } catch (RuntimeException e) {
+            // Truncated or otherwise corrupt files surface as buffer under- or overflows.
+            throw new IOException("Invalid catalog file for project " + projectId, e);
+        }
+    }
+
+    /**
+     * Stores the given project, replacing any previously stored version of it.
+     *
+     * @param project the project to store
+     * @throws IOException if the project could not be written
+     */
+    public void save(@NotNull Project project) throws IOException {
+        Files.createDirectories(directory);
+
+        List<Language> languages = List.copyOf(project.supportedLanguages().values());
+        List<Map<String, Translation>> translations = languages.stream()
+              .map(language -> project.translations().getOrDefault(language.tag(), Map.of()))
+              .toList();
+
+        // Every key is stored once and shared by all languages, sorted by hash so it can be binary searched.
+        Set<String> uniqueKeys = new LinkedHashSet<>();
+        translations.forEach(map -> uniqueKeys.addAll(map.keySet()));
+        String[] keys = uniqueKeys.toArray(String[]::new);
+        Arrays.sort(keys, Comparator.comparingInt(String::hashCode));
+
+        byte[][] encodedKeys = new byte[keys.length][];
+        int keyBlobLength = 0;
+        for (int i = 0; i < keys.length; i++) {
+            encodedKeys[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+            keyBlobLength += encodedKeys[i].length;
+        }
+
+        int[][] valueOffsets = new int[languages.size()][keys.length];
+        List<byte[]> encodedValues = new ArrayList<>();
+        int valueBlobLength = 0;
+
+        for (int language = 0; language < languages.size(); language++) {
+            for (int keyId = 0; keyId < keys.length; keyId++) {
+                Translation translation = translations.get(language).get(keys[keyId]);
+
+                if (translation == null) {
+                    valueOffsets[language][keyId] = MISSING;
+                    continue;
+                }
+
+                byte[] encoded = translation.value().getBytes(StandardCharsets.UTF_8);
+                valueOffsets[language][keyId] = valueBlobLength;
+                encodedValues.add(encoded);
+                valueBlobLength += Integer.BYTES + encoded.length;
+            }
+        }
+
+        Path file = file(project.id());
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(project.id());
+                out.writeInt(project.version());
+                out.writeInt(languages.size());
+                out.writeInt(keys.length);
+
+                for (int language = 0; language < languages.size(); language++) {
+                    String tag = languages.get(language).tag();
+                    writeString(out, tag);
+                    writeString(out, languages.get(language).name());
+
+                    TranslationsResponse.Validators validators = project.validators()
+                          .getOrDefault(tag, TranslationsResponse.Validators.NONE);
+                    writeNullableString(out, validators.etag());
+                    writeNullableString(out, validators.lastModified());
+                    out.writeInt(translations.get(language).size());
+                }
+
+                for (String key : keys) {
+                    out.writeInt(key.hashCode());
+                }
+
+                int keyOffset = 0;
+                for (byte[] encodedKey : encodedKeys) {
+                    out.writeInt(keyOffset);
+                    out.writeInt(encodedKey.length);
+                    keyOffset += encodedKey.length;
+                }
+
+                for (int[] offsets : valueOffsets) {
+                    for (int offset : offsets) {
+                        out.writeInt(offset);
+                    }
+                }
+
+                out.writeInt(keyBlobLength);
+                for (byte[] encodedKey : encodedKeys) {
+                    out.write(encodedKey);
+                }
+
+                for (byte[] encodedValue : encodedValues) {
+                    out.writeInt(encodedValue.length);
+                    out.write(encodedValue);
+                }
+
+                // The file must be on disk before it replaces the previous one, or a crash could leave it empty.
+                out.flush();
+                channel.force(true);
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @NotNull
+    private Path file(int projectId) {
+        return directory.resolve("project-" + projectId + ".weave");
+    }
+
+    // DataOutput#writeUTF is limited to 64 KiB, which a long translation could exceed.
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeNullableString(@NotNull DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) writeString(out, value);
+    }
+
+    @NotNull
+    private static String readString(@NotNull ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Nullable
+    private static String readNullableString(@NotNull ByteBuffer buffer) {
+        return buffer.get() != 0 ? readString(buffer) : null;
+    }
+}
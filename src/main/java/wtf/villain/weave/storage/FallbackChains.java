@@ -0,0 +1,60 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes which languages are used when a key is not translated in the requested language.
+ * <p>Chains are followed transitively: with {@code de-AT -> de} and {@code de -> en}, a key missing in {@code de-AT}
+ * is looked up in {@code de} first and in {@code en} afterwards.
+ *
+ * @param chains   the fallback languages of specific language tags, in order of preference
+ * @param defaults the fallback languages of every language without its own chain, in order of preference
+ */
+public record FallbackChains(@NotNull Map<String, List<String>> chains, @NotNull List<String> defaults) {
+
+    /**
+     * Fallback chains that never fall back to another language.
+     */
+    public static final FallbackChains NONE = new FallbackChains(Map.of(), List.of());
+
+    public FallbackChains {
+        chains = Map.copyOf(chains);
+        defaults = List.copyOf(defaults);
+    }
+
+    /**
+     * Checks whether or not any fallback is configured.
+     *
+     * @return whether or not there are no fallbacks
+     */
+    public boolean isEmpty() {
+        return chains.isEmpty() && defaults.isEmpty();
+    }
+
+    /**
+     * Resolves the complete fallback chain of the given language.
+     *
+     * @param tag the language tag
+     * @return the fallback language tags in order of preference, never including the given tag itself
+     */
+    @NotNull
+    public List<String> resolve(@NotNull String tag) {
+        Set<String> resolved = new LinkedHashSet<>();
+        expand(tag, tag, resolved);
+        return List.copyOf(resolved);
+    }
+
+    private void expand(@NotNull String origin, @NotNull String tag, @NotNull Set<String> resolved) {
+        for (String fallback : chains.getOrDefault(tag, defaults)) {
+            // The visited set also protects against cyclic chains.
+            if (!fallback.equals(origin) && resolved.add(fallback)) {
+                expand(origin, fallback, resolved);
+            }
+        }
+    }
+}
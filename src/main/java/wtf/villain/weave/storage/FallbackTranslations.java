@@ -0,0 +1,122 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The translations of a language followed by those of its fallback languages, looked up along the chain.
+ * <p>This is used instead of merging the languages into a single map when they are served from a
+ * {@link MappedCatalog}, so resolving fallbacks does not decode every translation onto the heap. The map is
+ * read-only.
+ */
+final class FallbackTranslations extends AbstractMap<String, Translation> {
+
+    // The language itself first, then its fallbacks in order of preference.
+    private final List<Map<String, Translation>> chain;
+
+    // Counted on first use, as it requires iterating every language.
+    private volatile int size = -1;
+
+    FallbackTranslations(@NotNull List<Map<String, Translation>> chain) {
+        this.chain = List.copyOf(chain);
+    }
+
+    @Override
+    @Nullable
+    public Translation get(Object key) {
+        for (Map<String, Translation> translations : chain) {
+            Translation translation = translations.get(key);
+            if (translation != null) return translation;
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = this.size;
+
+        if (size < 0) {
+            size = 0;
+            for (Iterator<Entry<String, Translation>> iterator = entrySet().iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+
+            this.size = size;
+        }
+
+        return size;
+    }
+
+    @Override
+    @NotNull
+    public Set<Entry<String, Translation>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return FallbackTranslations.this.size();
+            }
+
+            @Override
+            @NotNull
+            public Iterator<Entry<String, Translation>> iterator() {
+                return new Iterator<>() {
+                    private int language;
+                    private Iterator<Entry<String, Translation>> entries = chain.get(0).entrySet().iterator();
+                    @Nullable
+                    private Entry<String, Translation> next = advance();
+
+                    // Keys of a fallback language are skipped if a more preferred language translates them.
+                    @Nullable
+                    private Entry<String, Translation> advance() {
+                        while (true) {
+                            while (entries.hasNext()) {
+                                Entry<String, Translation> entry = entries.next();
+                                if (!translatedBefore(entry.getKey())) return entry;
+                            }
+
+                            if (++language == chain.size()) return null;
+                            entries = chain.get(language).entrySet().iterator();
+                        }
+                    }
+
+                    private boolean translatedBefore(@NotNull String key) {
+                        for (int i = 0; i < language; i++) {
+                            if (chain.get(i).containsKey(key)) return true;
+                        }
+
+                        return false;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<String, Translation> next() {
+                        Entry<String, Translation> entry = next;
+                        if (entry == null) throw new NoSuchElementException();
+
+                        next = advance();
+                        return entry;
+                    }
+                };
+            }
+        };
+    }
+}
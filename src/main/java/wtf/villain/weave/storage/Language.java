@@ -2,16 +2,16 @@ package wtf.villain.weave.storage;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a specific language.
  */
 public interface Language {
 
-    Map<String, Language> LANGUAGES = new HashMap<>();
+    Map<String, Language> LANGUAGES = new ConcurrentHashMap<>();
 
     Language ENGLISH = create("English", "en");
     Language GERMAN = create("German", "de");
@@ -49,14 +49,23 @@ public interface Language {
 
     @NotNull
     static Language findOrCreate(@NotNull String tag, @NotNull String name) {
-        return LANGUAGES.computeIfAbsent(tag, __ -> create(name, tag));
+        return LANGUAGES.computeIfAbsent(tag, __ -> new Impl(name, tag));
     }
 
     @NotNull
     static Language create(@NotNull String name, @NotNull String tag) {
-        Language language = new Impl(name, tag);
-        LANGUAGES.put(tag, language);
-        return language;
+        // Re-creating a language keeps its ordinal, as ordinals belong to the tag.
+        return LANGUAGES.compute(tag, (__, existing) -> new Impl(name, tag));
+    }
+
+    /**
+     * Gets the ordinal of the given language tag, assigning one if the tag has none yet.
+     *
+     * @param tag the tag of the language
+     * @return the ordinal, see {@link #ordinal()}
+     */
+    static int ordinalOf(@NotNull String tag) {
+        return LanguageOrdinals.of(tag);
     }
 
     @NotNull
@@ -80,6 +89,19 @@ public interface Language {
     @NotNull
     String tag();
 
+    /**
+     * Returns the ordinal of the language.
+     * <p>Every language tag is assigned a small, dense ordinal when it is first registered, which can be used to
+     * index per-language arrays. Languages with the same tag have the same ordinal.
+     * <p>The default implementation looks the ordinal up by tag on every call. Custom implementations that are looked
+     * up often should compute it once with {@link #ordinalOf(String)} and return that instead.
+     *
+     * @return the ordinal
+     */
+    default int ordinal() {
+        return ordinalOf(tag());
+    }
+
     /**
      * Returns a map entry of the language.
      *
@@ -90,12 +112,32 @@ public interface Language {
         return Map.entry(tag(), this);
     }
 
-    record Impl(@NotNull String name, @NotNull String tag) implements Language {
+    record Impl(@NotNull String name, @NotNull String tag, int ordinal) implements Language {
+
+        /**
+         * @throws IllegalArgumentException if the ordinal is not the ordinal of the tag, see {@link #ordinalOf(String)}
+         */
+        public Impl {
+            // Tables are indexed by ordinal, so a wrong one would silently serve another language's translations.
+            if (ordinal != ordinalOf(tag)) {
+                throw new IllegalArgumentException("Ordinal of " + tag + " is " + ordinalOf(tag) + ", not " + ordinal);
+            }
+        }
+
+        public Impl(@NotNull String name, @NotNull String tag) {
+            this(name, tag, ordinalOf(tag));
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (!(obj instanceof Language language)) return false;
             return language.tag().equals(tag);
         }
+
+        @Override
+        public int hashCode() {
+            return tag.hashCode();
+        }
     }
 
 }
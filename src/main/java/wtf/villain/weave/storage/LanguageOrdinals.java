@@ -0,0 +1,24 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out the ordinals of {@link Language}s.
+ * <p>Ordinals are assigned per tag and never change, so every language with the same tag has the same ordinal.
+ */
+final class LanguageOrdinals {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+    private static final Map<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+    private LanguageOrdinals() {
+    }
+
+    static int of(@NotNull String tag) {
+        return ORDINALS.computeIfAbsent(tag, __ -> NEXT.getAndIncrement());
+    }
+}
@@ -0,0 +1,138 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable map of per-language translation tables keyed by language tag.
+ * <p>Besides the regular tag based lookup, tables can be looked up by {@link Language#ordinal()} through
+ * {@link #get(Language)}, which is a plain array access. Tables looked up by language have their
+ * {@link FallbackChains fallbacks} already merged in, while the map view always contains the translations as they
+ * were fetched.
+ */
+final class LanguageTable extends AbstractMap<String, Map<String, Translation>> {
+
+    private final Map<String, Map<String, Translation>> byTag;
+    private final Map<String, Translation>[] byOrdinal;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private LanguageTable(@NotNull Map<String, Map<String, Translation>> byTag,
+                          @NotNull Map<String, Map<String, Translation>> resolved) {
+        this.byTag = Map.copyOf(byTag);
+
+        int length = 0;
+        for (String tag : resolved.keySet()) {
+            Language language = Language.LANGUAGES.get(tag);
+            if (language != null) length = Math.max(length, language.ordinal() + 1);
+        }
+
+        this.byOrdinal = new Map[length];
+        resolved.forEach((tag, translations) -> {
+            Language language = Language.LANGUAGES.get(tag);
+            if (language != null) byOrdinal[language.ordinal()] = translations;
+        });
+    }
+
+    /**
+     * Creates a table containing the given translations.
+     *
+     * @param translations the translations, keyed by language tag
+     * @return the table
+     */
+    @NotNull
+    static LanguageTable copyOf(@NotNull Map<String, Map<String, Translation>> translations) {
+        return translations instanceof LanguageTable table ? table : new LanguageTable(translations, translations);
+    }
+
+    /**
+     * Creates a table containing the given translations, with the given fallbacks merged into each language.
+     * <p>Merging happens once, here, so looking up a key is a single map lookup even if it has to fall back. Languages
+     * served from a {@link MappedCatalog} are not merged, so they stay off the heap, and look up their fallbacks one
+     * after another instead, see {@link FallbackTranslations}.
+     *
+     * @param translations the translations as they were fetched, keyed by language tag
+     * @param fallbacks    the fallback chains to apply
+     * @return the table
+     */
+    @NotNull
+    static LanguageTable resolve(@NotNull Map<String, Map<String, Translation>> translations, @NotNull FallbackChains fallbacks) {
+        Map<String, Map<String, Translation>> resolved = new HashMap<>();
+
+        translations.forEach((tag, own) -> {
+            List<String> chain = fallbacks.resolve(tag).stream()
+                  .filter(translations::containsKey)
+                  .toList();
+
+            if (chain.isEmpty()) {
+                resolved.put(tag, own);
+                return;
+            }
+
+            boolean mapped = own instanceof MappedTranslations
+                  || chain.stream().anyMatch(fallback -> translations.get(fallback) instanceof MappedTranslations);
+
+            if (mapped) {
+                // Merging would decode every translation of the catalog onto the heap, walk the chain on lookup instead.
+                List<Map<String, Translation>> languages = new ArrayList<>();
+                languages.add(own);
+                chain.forEach(fallback -> languages.add(translations.get(fallback)));
+
+                resolved.put(tag, new FallbackTranslations(languages));
+                return;
+            }
+
+            // Least preferred first, so more preferred languages overwrite it.
+            Map<String, Translation> merged = new HashMap<>();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                merged.putAll(translations.get(chain.get(i)));
+            }
+            merged.putAll(own);
+
+            resolved.put(tag, Collections.unmodifiableMap(merged));
+        });
+
+        return new LanguageTable(translations, resolved);
+    }
+
+    /**
+     * Gets the translations of the given language.
+     *
+     * @param language the language
+     * @return the translations, or {@code null} if there are none for the given language
+     */
+    @Nullable
+    Map<String, Translation> get(@NotNull Language language) {
+        int ordinal = language.ordinal();
+        return ordinal < byOrdinal.length ? byOrdinal[ordinal] : null;
+    }
+
+    @Override
+    public Map<String, Translation> get(Object key) {
+        return byTag.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return byTag.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return byTag.size();
+    }
+
+    @Override
+    @NotNull
+    public Set<Entry<String, Map<String, Translation>>> entrySet() {
+        return byTag.entrySet();
+    }
+}
@@ -0,0 +1,239 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only access to the translation tables of a memory-mapped {@link CatalogCache} file.
+ * <p>Only absolute reads are used on the underlying buffer, so a catalog may be read by any number of threads.
+ */
+final class MappedCatalog {
+
+    private final ByteBuffer buffer;
+    private final int languageCount;
+    private final int keyCount;
+
+    private final int hashesPosition;
+    private final int keyEntriesPosition;
+    private final int valueIndexesPosition;
+    private final int keysPosition;
+    private final int valuesPosition;
+
+    /**
+     * @param buffer         the mapped file
+     * @param languageCount  the number of languages in the file
+     * @param keyCount       the number of distinct keys in the file
+     * @param tablesPosition the position the key table starts at, right after the language table
+     */
+    private MappedCatalog(@NotNull ByteBuffer buffer, int languageCount, int keyCount, int tablesPosition) {
+        this.buffer = buffer;
+        this.languageCount = languageCount;
+        this.keyCount = keyCount;
+
+        this.hashesPosition = tablesPosition;
+        this.keyEntriesPosition = hashesPosition + Integer.BYTES * keyCount;
+        this.valueIndexesPosition = keyEntriesPosition + 2 * Integer.BYTES * keyCount;
+
+        int keyBlobLengthPosition = valueIndexesPosition + Integer.BYTES * keyCount * languageCount;
+        this.keysPosition = keyBlobLengthPosition + Integer.BYTES;
+        this.valuesPosition = keysPosition + buffer.getInt(keyBlobLengthPosition);
+    }
+
+    /**
+     * Opens the translation tables of the given file and checks that every table, offset and length lies within it.
+     * <p>Lookups do not check bounds, so a damaged file is rejected here instead of failing on first use.
+     *
+     * @param buffer         the mapped file
+     * @param languageCount  the number of languages in the file
+     * @param keyCount       the number of distinct keys in the file
+     * @param tablesPosition the position the key table starts at, right after the language table
+     * @return the catalog
+     * @throws IOException if the tables do not fit the file
+     */
+    @NotNull
+    static MappedCatalog open(@NotNull ByteBuffer buffer, int languageCount, int keyCount, int tablesPosition) throws IOException {
+        if (languageCount < 0 || keyCount < 0) throw new IOException("Invalid table sizes");
+
+        // Computed as longs, so huge counts in a damaged file cannot overflow into valid looking positions.
+        long keyBlobLengthPosition = tablesPosition + (long) Integer.BYTES * keyCount * (3 + languageCount);
+        if (keyBlobLengthPosition + Integer.BYTES > buffer.limit()) throw new IOException("Truncated tables");
+
+        int keyBlobLength = buffer.getInt((int) keyBlobLengthPosition);
+        if (keyBlobLength < 0 || keyBlobLengthPosition + Integer.BYTES + keyBlobLength > buffer.limit()) {
+            throw new IOException("Truncated keys");
+        }
+
+        MappedCatalog catalog = new MappedCatalog(buffer, languageCount, keyCount, tablesPosition);
+        catalog.validate();
+        return catalog;
+    }
+
+    private void validate() throws IOException {
+        for (int keyId = 0; keyId < keyCount; keyId++) {
+            int entry = keyEntriesPosition + 2 * Integer.BYTES * keyId;
+            long offset = buffer.getInt(entry);
+            long length = buffer.getInt(entry + Integer.BYTES);
+
+            if (offset < 0 || length < 0 || keysPosition + offset + length > valuesPosition) {
+                throw new IOException("Invalid key entry " + keyId);
+            }
+        }
+
+        long valuesLength = buffer.limit() - valuesPosition;
+
+        for (int language = 0; language < languageCount; language++) {
+            for (int keyId = 0; keyId < keyCount; keyId++) {
+                long offset = valueOffset(language, keyId);
+                if (offset == -1) continue;
+
+                if (offset < 0 || offset + Integer.BYTES > valuesLength) {
+                    throw new IOException("Invalid value entry " + keyId + " of language " + language);
+                }
+
+                long length = buffer.getInt(valuesPosition + (int) offset);
+
+                if (length < 0 || offset + Integer.BYTES + length > valuesLength) {
+                    throw new IOException("Invalid value length " + keyId + " of language " + language);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of distinct keys in this catalog.
+     *
+     * @return the number of keys
+     */
+    int keyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Finds the ID of the given key.
+     * <p>Keys are sorted by their {@link String#hashCode()}, so this is a binary search followed by a byte-wise
+     * comparison of the candidates. It does not allocate.
+     *
+     * @param key the key to find
+     * @return the ID of the key, or {@code -1} if this catalog does not contain it
+     */
+    int keyId(@NotNull String key) {
+        int hash = key.hashCode();
+        int low = 0;
+        int high = keyCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (hash(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        for (int keyId = low; keyId < keyCount && hash(keyId) == hash; keyId++) {
+            int entry = keyEntriesPosition + 2 * Integer.BYTES * keyId;
+
+            if (utf8Equals(keysPosition + buffer.getInt(entry), buffer.getInt(entry + Integer.BYTES), key)) {
+                return keyId;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decodes the key with the given ID.
+     *
+     * @param keyId the ID of the key
+     * @return the key
+     */
+    @NotNull
+    String key(int keyId) {
+        int entry = keyEntriesPosition + 2 * Integer.BYTES * keyId;
+        return decode(keysPosition + buffer.getInt(entry), buffer.getInt(entry + Integer.BYTES));
+    }
+
+    /**
+     * Checks whether or not the given language has a translation for the given key.
+     *
+     * @param language the index of the language
+     * @param keyId    the ID of the key
+     * @return whether or not a translation exists
+     */
+    boolean hasValue(int language, int keyId) {
+        return valueOffset(language, keyId) >= 0;
+    }
+
+    /**
+     * Decodes the translation of the given key in the given language.
+     *
+     * @param language the index of the language
+     * @param keyId    the ID of the key
+     * @return the translation, or {@code null} if the key is not translated in the given language
+     */
+    @Nullable
+    String value(int language, int keyId) {
+        int offset = valueOffset(language, keyId);
+        if (offset < 0) return null;
+
+        int position = valuesPosition + offset;
+        return decode(position + Integer.BYTES, buffer.getInt(position));
+    }
+
+    private int valueOffset(int language, int keyId) {
+        return buffer.getInt(valueIndexesPosition + Integer.BYTES * (keyCount * language + keyId));
+    }
+
+    private int hash(int keyId) {
+        return buffer.getInt(hashesPosition + Integer.BYTES * keyId);
+    }
+
+    @NotNull
+    private String decode(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares UTF-8 bytes of this catalog with the given string, encoding the string on the fly.
+     */
+    private boolean utf8Equals(int position, int length, @NotNull String value) {
+        int end = position + length;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x80) {
+                if (position >= end || buffer.get(position++) != (byte) c) return false;
+            } else if (c < 0x800) {
+                if (position + 2 > end
+                      || buffer.get(position++) != (byte) (0xC0 | (c >> 6))
+                      || buffer.get(position++) != (byte) (0x80 | (c & 0x3F))) return false;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+                if (position + 4 > end
+                      || buffer.get(position++) != (byte) (0xF0 | (codePoint >> 18))
+                      || buffer.get(position++) != (byte) (0x80 | ((codePoint >> 12) & 0x3F))
+                      || buffer.get(position++) != (byte) (0x80 | ((codePoint >> 6) & 0x3F))
+                      || buffer.get(position++) != (byte) (0x80 | (codePoint & 0x3F))) return false;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are encoded as '?' by String#getBytes.
+                if (position >= end || buffer.get(position++) != '?') return false;
+            } else {
+                if (position + 3 > end
+                      || buffer.get(position++) != (byte) (0xE0 | (c >> 12))
+                      || buffer.get(position++) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                      || buffer.get(position++) != (byte) (0x80 | (c & 0x3F))) return false;
+            }
+        }
+
+        return position == end;
+    }
+}
@@ -0,0 +1,108 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The translations of a single language, served from a {@link MappedCatalog}.
+ * <p>Translations are decoded on first access and kept afterwards, so untouched translations never occupy the heap.
+ * The map is read-only.
+ */
+final class MappedTranslations extends AbstractMap<String, Translation> {
+
+    private final MappedCatalog catalog;
+    private final int language;
+    private final int size;
+    private final WeaveProcessor processor;
+    private final AtomicReferenceArray<Translation> decoded;
+
+    MappedTranslations(@NotNull MappedCatalog catalog, int language, int size, @NotNull WeaveProcessor processor) {
+        this.catalog = catalog;
+        this.language = language;
+        this.size = size;
+        this.processor = processor;
+        this.decoded = new AtomicReferenceArray<>(catalog.keyCount());
+    }
+
+    @Override
+    @Nullable
+    public Translation get(Object key) {
+        if (!(key instanceof String string)) return null;
+
+        int keyId = catalog.keyId(string);
+        return keyId < 0 ? null : translation(keyId);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String string)) return false;
+
+        int keyId = catalog.keyId(string);
+        return keyId >= 0 && catalog.hasValue(language, keyId);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @NotNull
+    public Set<Entry<String, Translation>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @NotNull
+            public Iterator<Entry<String, Translation>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int keyId) {
+                        while (keyId < catalog.keyCount() && !catalog.hasValue(language, keyId)) keyId++;
+                        return keyId;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < catalog.keyCount();
+                    }
+
+                    @Override
+                    public Entry<String, Translation> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+
+                        int keyId = next;
+                        next = advance(keyId + 1);
+                        return Map.entry(catalog.key(keyId), translation(keyId));
+                    }
+                };
+            }
+        };
+    }
+
+    @Nullable
+    private Translation translation(int keyId) {
+        Translation translation = decoded.get(keyId);
+        if (translation != null) return translation;
+
+        String value = catalog.value(language, keyId);
+        if (value == null) return null;
+
+        translation = new Translation(value, processor);
+        return decoded.compareAndSet(keyId, null, translation) ? translation : decoded.get(keyId);
+    }
+}
@@ -2,15 +2,49 @@ package wtf.villain.weave.storage;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.client.TranslationsResponse;
+import wtf.villain.weave.translation.Arguments;
 import wtf.villain.weave.translation.Translation;
 
+import java.util.Collection;
 import java.util.Map;
 
+/**
+ * A cached project.
+ *
+ * @param id                 the ID of the project
+ * @param supportedLanguages the languages of the project, keyed by their tag
+ * @param translations       the translations of each language, keyed by language tag and translation key
+ * @param validators         the HTTP validators each language's translations were fetched with, used to skip
+ *                           unchanged languages on the next refresh
+ * @param version            the version of the project, incremented on every refresh
+ */
 public record Project(int id,
                       Map<String, Language> supportedLanguages,
                       Map<String, Map<String, Translation>> translations,
+                      Map<String, TranslationsResponse.Validators> validators,
                       int version) {
 
+    public Project {
+        // Translations are indexed by language ordinal, see #translations(Language).
+        translations = LanguageTable.copyOf(translations);
+    }
+
+    /**
+     * Creates a project without any validators, so every language is fetched in full on the next refresh.
+     *
+     * @param id                 the ID of the project
+     * @param supportedLanguages the languages of the project, keyed by their tag
+     * @param translations       the translations of each language, keyed by language tag and translation key
+     * @param version            the version of the project
+     */
+    public Project(int id,
+                   Map<String, Language> supportedLanguages,
+                   Map<String, Map<String, Translation>> translations,
+                   int version) {
+        this(id, supportedLanguages, translations, Map.of(), version);
+    }
+
     /**
      * Gets the language with the given tag.
      *
@@ -75,6 +109,8 @@ public record Project(int id,
 
     /**
      * Gets the translations for the given language.
+     * <p>If fallback chains are configured, keys that are not translated in the given language are already filled
+     * in from its fallback languages. {@link #translations()} always contains the translations as they were fetched.
      *
      * @param language the language to get the translations for
      * @return the translations for the given language
@@ -83,7 +119,7 @@ public record Project(int id,
      */
     @NotNull
     public Map<String, Translation> translations(@NotNull Language language) {
-        Map<String, Translation> translations = this.translations().get(language.tag());
+        Map<String, Translation> translations = ((LanguageTable) this.translations).get(language);
 
         if (translations == null) {
             if (this.supportedLanguages.containsKey(language.tag())) {
@@ -109,4 +145,61 @@ public record Project(int id,
     public Translation translation(@NotNull Language language, @NotNull String key) {
         return this.translations(language).get(key);
     }
+
+    /**
+     * Formats the translations of the given keys in the given language.
+     * <p>The arguments are resolved once and reused for every translation, see {@link Arguments}.
+     *
+     * @param keys     the keys of the translations to format
+     * @param language the language to format the translations in
+     * @param formats  the formats to use
+     * @return the formatted translations keyed by translation key, in the order of the given keys, without keys that
+     * are not translated
+     * @throws IllegalArgumentException if the given language is not supported by this project
+     * @throws IllegalStateException    if there are no translations for the given language
+     */
+    @NotNull
+    public Map<String, String> formatAll(@NotNull Collection<String> keys, @NotNull Language language, @NotNull Map<String, Object> formats) {
+        return formatAll(keys, language, formats, false);
+    }
+
+    /**
+     * Formats the translations of the given keys in the given language, optionally in parallel.
+     * See {@link #formatAll(Collection, Language, Map)}.
+     *
+     * @param parallel whether or not the translations should be formatted in parallel
+     */
+    @NotNull
+    public Map<String, String> formatAll(@NotNull Collection<String> keys, @NotNull Language language, @NotNull Map<String, Object> formats, boolean parallel) {
+        Map<String, Translation> translations = this.translations(language);
+        return Arguments.of(formats).formatEach(keys, translations::get, parallel);
+    }
+
+    /**
+     * Formats the translation of the given key in each of the given languages.
+     * <p>The arguments are resolved once and reused for every language, see {@link Arguments}.
+     *
+     * @param key       the key of the translation to format
+     * @param languages the languages to format the translation in
+     * @param formats   the formats to use
+     * @return the formatted translations keyed by language, in the order of the given languages, without languages
+     * the key is not translated in
+     * @throws IllegalArgumentException if one of the given languages is not supported by this project
+     * @throws IllegalStateException    if there are no translations for one of the given languages
+     */
+    @NotNull
+    public Map<Language, String> formatForLanguages(@NotNull String key, @NotNull Collection<Language> languages, @NotNull Map<String, Object> formats) {
+        return formatForLanguages(key, languages, formats, false);
+    }
+
+    /**
+     * Formats the translation of the given key in each of the given languages, optionally in parallel.
+     * See {@link #formatForLanguages(String, Collection, Map)}.
+     *
+     * @param parallel whether or not the translations should be formatted in parallel
+     */
+    @NotNull
+    public Map<Language, String> formatForLanguages(@NotNull String key, @NotNull Collection<Language> languages, @NotNull Map<String, Object> formats, boolean parallel) {
+        return Arguments.of(formats).formatEach(languages, language -> this.translation(language, key), parallel);
+    }
 }
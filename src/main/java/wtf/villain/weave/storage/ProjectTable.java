@@ -0,0 +1,135 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of projects keyed by their ID.
+ * <p>Lookups through {@link #get(int)} use an open-addressing table of primitive keys, so they neither box the ID
+ * nor follow any pointers besides the one to the project itself.
+ */
+final class ProjectTable extends AbstractMap<Integer, Project> {
+
+    private static final ProjectTable EMPTY = new ProjectTable(new int[1], new Project[1], 0);
+
+    private final int[] ids;
+    private final Project[] projects;
+    private final int size;
+
+    private ProjectTable(int @NotNull [] ids, @Nullable Project @NotNull [] projects, int size) {
+        this.ids = ids;
+        this.projects = projects;
+        this.size = size;
+    }
+
+    /**
+     * Creates a table containing the given projects.
+     *
+     * @param projects the projects, keyed by their ID
+     * @return the table
+     */
+    @NotNull
+    static ProjectTable copyOf(@NotNull Map<Integer, Project> projects) {
+        if (projects instanceof ProjectTable table) return table;
+        if (projects.isEmpty()) return EMPTY;
+
+        // Keep the load factor at or below 50%, so probe sequences stay short.
+        int capacity = Integer.highestOneBit(projects.size() * 2 - 1) << 1;
+        int[] ids = new int[capacity];
+        Project[] values = new Project[capacity];
+
+        projects.forEach((id, project) -> {
+            int index = index(id, capacity - 1);
+            while (values[index] != null) index = (index + 1) & (capacity - 1);
+
+            ids[index] = id;
+            values[index] = project;
+        });
+
+        return new ProjectTable(ids, values, projects.size());
+    }
+
+    /**
+     * Gets the project with the given ID.
+     *
+     * @param id the ID of the project
+     * @return the project, or {@code null} if there is no project with the given ID
+     */
+    @Nullable
+    Project get(int id) {
+        int mask = projects.length - 1;
+
+        for (int index = index(id, mask); ; index = (index + 1) & mask) {
+            Project project = projects[index];
+
+            if (project == null) return null;
+            if (ids[index] == id) return project;
+        }
+    }
+
+    @Override
+    @Nullable
+    public Project get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @NotNull
+    public Set<Entry<Integer, Project>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            @NotNull
+            public Iterator<Entry<Integer, Project>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int index) {
+                        while (index < projects.length && projects[index] == null) index++;
+                        return index;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < projects.length;
+                    }
+
+                    @Override
+                    public Entry<Integer, Project> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+
+                        int index = next;
+                        next = advance(index + 1);
+                        return Map.entry(ids[index], projects[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    private static int index(int id, int mask) {
+        // Fibonacci hashing spreads sequential IDs over the whole table.
+        return (id * 0x9E3779B9) >>> 16 & mask;
+    }
+}
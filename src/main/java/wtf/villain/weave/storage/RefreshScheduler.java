@@ -0,0 +1,122 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Refreshes translations periodically in the background.
+ * <p>The next refresh is scheduled once the previous one has completed, so refreshes never overlap. Every delay is
+ * randomly spread by the configured jitter, so many instances started at the same time do not all query Tolgee at
+ * the same instant. After a failed refresh, the delay is doubled for every consecutive failure, up to the maximum
+ * backoff, and reset after the next successful refresh.
+ */
+public final class RefreshScheduler implements AutoCloseable {
+
+    private final Supplier<CompletableFuture<?>> refresh;
+    private final long intervalMillis;
+    private final double jitter;
+    private final long maximumBackoffMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Weave Refresh Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int failures;
+    private volatile boolean closed;
+
+    /**
+     * @param refresh        the refresh to run, returning a future that completes when it is done
+     * @param interval       the delay between two refreshes
+     * @param jitter         the fraction by which every delay is randomly lengthened or shortened, between 0 and 1
+     * @param maximumBackoff the maximum delay after failed refreshes
+     */
+    public RefreshScheduler(@NotNull Supplier<CompletableFuture<?>> refresh,
+                            @NotNull Duration interval,
+                            double jitter,
+                            @NotNull Duration maximumBackoff) {
+        this.refresh = refresh;
+        this.intervalMillis = interval.toMillis();
+        this.jitter = jitter;
+        this.maximumBackoffMillis = Math.max(maximumBackoff.toMillis(), intervalMillis);
+    }
+
+    /**
+     * Schedules the first refresh, one interval from now.
+     */
+    public void start() {
+        schedule();
+    }
+
+    /**
+     * Gets the number of consecutive failed refreshes.
+     *
+     * @return the number of failures
+     */
+    public int failures() {
+        return failures;
+    }
+
+    /**
+     * Stops refreshing. A refresh that is in progress is not interrupted, but no further refresh is scheduled.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Computes the delay before the next refresh.
+     *
+     * @param failures the number of consecutive failed refreshes
+     * @param random   a random number between 0 (inclusive) and 1 (exclusive)
+     * @return the delay in milliseconds
+     */
+    long delayMillis(int failures, double random) {
+        long delay = intervalMillis;
+
+        // Doubling more than 30 times would overflow long before it matters.
+        for (int i = 0; i < Math.min(failures, 30) && delay < maximumBackoffMillis; i++) {
+            delay *= 2;
+        }
+
+        if (failures > 0) delay = Math.min(delay, maximumBackoffMillis);
+
+        return Math.max(0, Math.round(delay * (1 + jitter * (2 * random - 1))));
+    }
+
+    private void schedule() {
+        if (closed) return;
+
+        try {
+            executor.schedule(this::run, delayMillis(failures, ThreadLocalRandom.current().nextDouble()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Closed in the meantime.
+        }
+    }
+
+    private void run() {
+        CompletableFuture<?> future;
+
+        try {
+            future = refresh.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            failures = throwable == null ? 0 : failures + 1;
+            schedule();
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.translation.Arguments;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of formatted translations, for messages that are formatted many times with the same arguments,
+ * such as a broadcast to every player.
+ * <p>Entries are keyed by the translation instance, the version of its project and the arguments, so a cache hit
+ * costs a single hash lookup. Translations are shared by every language that falls back to them, so those languages
+ * share cache entries as well. The cache holds at most {@link #maximumWeight()} characters of formatted text (plus a
+ * small overhead per entry) and evicts the oldest entries first. Entries of a project are dropped as soon as a new
+ * version of it is published.
+ * <p>Arguments are compared with {@link Object#equals(Object)}, so they should be immutable values. The cache is
+ * thread-safe.
+ */
+public final class RenderCache {
+
+    // Accounts for the key and map entry, so that many tiny entries are bounded as well.
+    private static final int ENTRY_WEIGHT = 32;
+
+    private final long maximumWeight;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Holds the entries rather than their keys, so that an entry left behind by a concurrent invalidation can only
+    // ever remove itself, never a newer entry with the same key.
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weight = new AtomicLong();
+
+    /**
+     * @param maximumWeight the maximum weight of the cache, roughly the number of cached characters
+     */
+    public RenderCache(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Gets the maximum weight of this cache.
+     *
+     * @return the maximum weight
+     */
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Gets the current weight of this cache.
+     *
+     * @return the current weight
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Formats the given translation of the given project, or returns the cached result of a previous call.
+     *
+     * @param project     the project the translation belongs to
+     * @param translation the translation to format
+     * @param arguments   the arguments to format the translation with
+     * @return the formatted translation
+     */
+    @NotNull
+    public String format(@NotNull Project project, @NotNull Translation translation, @NotNull Arguments arguments) {
+        Key key = new Key(project.id(), project.version(), translation, arguments);
+        Entry cached = entries.get(key);
+        if (cached != null) return cached.formatted;
+
+        Entry entry = new Entry(key, arguments.format(translation));
+        int entryWeight = weigh(entry.formatted);
+
+        if (entryWeight <= maximumWeight && entries.putIfAbsent(key, entry) == null) {
+            insertionOrder.add(entry);
+            weight.addAndGet(entryWeight);
+            evict();
+        }
+
+        return entry.formatted;
+    }
+
+    /**
+     * Drops every entry of the given project.
+     *
+     * @param projectId the ID of the project
+     */
+    public void invalidate(int projectId) {
+        insertionOrder.removeIf(entry -> entry.key.projectId == projectId);
+
+        for (Entry entry : entries.values()) {
+            if (entry.key.projectId == projectId) remove(entry);
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void invalidateAll() {
+        insertionOrder.clear();
+
+        for (Entry entry : entries.values()) {
+            remove(entry);
+        }
+    }
+
+    private void evict() {
+        while (weight.get() > maximumWeight) {
+            Entry eldest = insertionOrder.poll();
+            if (eldest == null) return;
+
+            remove(eldest);
+        }
+    }
+
+    private void remove(@NotNull Entry entry) {
+        // Only the thread that actually removes the entry releases its weight.
+        if (entries.remove(entry.key, entry)) weight.addAndGet(-weigh(entry.formatted));
+    }
+
+    private static int weigh(@NotNull String formatted) {
+        return ENTRY_WEIGHT + formatted.length();
+    }
+
+    private record Key(int projectId, int version, @NotNull Translation translation, @NotNull Arguments arguments) {
+    }
+
+    // Compared by identity.
+    private static final class Entry {
+
+        private final Key key;
+        private final String formatted;
+
+        private Entry(@NotNull Key key, @NotNull String formatted) {
+            this.key = key;
+            this.formatted = formatted;
+        }
+    }
+}
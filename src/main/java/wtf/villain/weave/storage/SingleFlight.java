@@ -0,0 +1,84 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation at most once at a time, coalescing the requests that arrive while it is running.
+ * <p>A request that arrives while the operation is running cannot know whether the running operation has seen the
+ * change it was requested for, so the operation is run once more after the running one has completed. Every request
+ * that arrives in the meantime shares that single run.
+ *
+ * @param <T> the result type of the operation
+ */
+final class SingleFlight<T> {
+
+    // Guarded by this.
+    @Nullable
+    private CompletableFuture<T> running;
+    @Nullable
+    private CompletableFuture<T> queued;
+    @Nullable
+    private Supplier<CompletableFuture<T>> queuedOperation;
+
+    /**
+     * Runs the given operation, or queues another run if an operation is already running.
+     * <p>A queued run uses the operation of the latest request.
+     *
+     * @param operation the operation to run
+     * @return a future that completes with the run, which may be completed by the caller without affecting it
+     */
+    @NotNull
+    CompletableFuture<T> run(@NotNull Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> started;
+
+        synchronized (this) {
+            if (running != null) {
+                if (queued == null) queued = new CompletableFuture<>();
+                queuedOperation = operation;
+                return queued.copy();
+            }
+
+            started = new CompletableFuture<>();
+            running = started;
+        }
+
+        launch(started, operation);
+        return started.copy();
+    }
+
+    private void launch(@NotNull CompletableFuture<T> target, @NotNull Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> future;
+
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            CompletableFuture<T> next;
+            Supplier<CompletableFuture<T>> nextOperation;
+
+            synchronized (this) {
+                next = queued;
+                nextOperation = queuedOperation;
+                queued = null;
+                queuedOperation = null;
+                running = next;
+            }
+
+            if (throwable != null) {
+                target.completeExceptionally(throwable);
+            } else {
+                target.complete(result);
+            }
+
+            if (next != null) launch(next, Objects.requireNonNull(nextOperation));
+        });
+    }
+}
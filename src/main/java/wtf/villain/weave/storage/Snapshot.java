@@ -0,0 +1,53 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of every cached project.
+ * <p>A snapshot is never modified after it has been created. Refreshing a project creates a new snapshot which
+ * replaces the previous one in a single step, so readers always observe a complete project tree.
+ *
+ * @param version  the version of the snapshot, incremented on every publish
+ * @param projects the cached projects, keyed by their ID
+ */
+public record Snapshot(long version, @NotNull Map<Integer, Project> projects) {
+
+    /**
+     * The snapshot used before the first refresh has completed.
+     */
+    public static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+    public Snapshot {
+        projects = ProjectTable.copyOf(projects);
+    }
+
+    /**
+     * Gets the project with the given ID.
+     *
+     * @param id the ID of the project to get
+     * @return the project with the given ID, or {@code null} if no such project exists
+     */
+    @Nullable
+    public Project project(int id) {
+        return ((ProjectTable) projects).get(id);
+    }
+
+    /**
+     * Creates a new snapshot that contains the given projects in addition to (or in place of) the projects of this
+     * snapshot.
+     *
+     * @param updated the projects to add or replace
+     * @return the new snapshot
+     */
+    @NotNull
+    Snapshot with(@NotNull Collection<Project> updated) {
+        Map<Integer, Project> projects = new HashMap<>(this.projects);
+        updated.forEach(project -> projects.put(project.id(), project));
+        return new Snapshot(version + 1, projects);
+    }
+}
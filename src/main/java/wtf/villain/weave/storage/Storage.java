@@ -1,28 +1,122 @@
 package wtf.villain.weave.storage;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import wtf.villain.weave.client.LanguagesResponse;
 import wtf.villain.weave.client.TolgeeClient;
+import wtf.villain.weave.client.TranslationsConsumer;
+import wtf.villain.weave.client.TranslationsResponse;
 import wtf.villain.weave.translation.Translation;
 import wtf.villain.weave.translation.process.PostProcessor;
+import wtf.villain.weave.translation.process.PreProcessor;
 import wtf.villain.weave.translation.process.WeaveProcessor;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
-@Getter
-@RequiredArgsConstructor
 public final class Storage {
 
+    @Getter
     private final List<Integer> projectIds;
+    @Getter
+    private final List<PreProcessor> preProcessors;
+    @Getter
     private final List<PostProcessor> postProcessors;
-    private final Map<Integer, Project> projects = new HashMap<>();
+    @Getter
+    private final boolean incrementalRefresh;
+    @Getter
+    private final boolean bulkFetch;
+    @Getter
+    @Nullable
+    private final CatalogCache cache;
+    @Getter
+    private final boolean mapCatalog;
+    @Getter
+    @NotNull
+    private final FallbackChains fallbacks;
+    @Getter
+    @Nullable
+    private final RenderCache renderCache;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    @Nullable
+    private volatile WeaveProcessor processor;
+
+    // The refreshes that are currently in progress, shared by everyone asking for the same refresh.
+    private final SingleFlight<Void> refreshes = new SingleFlight<>();
+    private final Map<Integer, SingleFlight<Project>> projectRefreshes = new ConcurrentHashMap<>();
+
+    // Every fetch is numbered when it starts, so results of a fetch never replace those of a later one.
+    private final AtomicLong fetches = new AtomicLong();
+    // The number of the fetch each published project comes from, guarded by this.
+    private final Map<Integer, Long> publishedFetches = new HashMap<>();
+
+    private Storage(@NotNull Builder builder) {
+        this.projectIds = List.copyOf(builder.projectIds);
+        this.preProcessors = List.copyOf(builder.preProcessors);
+        this.postProcessors = List.copyOf(builder.postProcessors);
+        this.incrementalRefresh = builder.incrementalRefresh;
+        this.bulkFetch = builder.bulkFetch;
+        this.cache = builder.cache;
+        this.mapCatalog = builder.mapCatalog;
+        this.fallbacks = builder.fallbacks;
+        this.renderCache = builder.renderCache;
+    }
+
+    /**
+     * Creates a storage of the given projects with the given post-processors and the default settings of
+     * {@link #builder(List)}.
+     *
+     * @param projectIds     the IDs of the projects to store
+     * @param postProcessors the post-processors, in the order they should be applied
+     * @deprecated use {@link #builder(List)}, which can configure every setting
+     */
+    @Deprecated
+    public Storage(@NotNull List<Integer> projectIds, @NotNull List<PostProcessor> postProcessors) {
+        this(builder(projectIds).postProcessors(postProcessors));
+    }
+
+    /**
+     * Creates a builder for a storage of the given projects.
+     * <p>Every other setting is off or empty by default, except {@link Builder#incrementalRefresh(boolean)}.
+     *
+     * @param projectIds the IDs of the projects to store
+     * @return the builder
+     */
+    @NotNull
+    public static Builder builder(@NotNull List<Integer> projectIds) {
+        return new Builder(projectIds);
+    }
+
+    /**
+     * Gets the current snapshot of the cache.
+     * <p>The returned snapshot is immutable and will never observe a partially completed refresh.
+     *
+     * @return the current snapshot
+     */
+    @NotNull
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Gets the cached projects of the current snapshot.
+     *
+     * @return an immutable map of the cached projects, keyed by their ID
+     */
+    @NotNull
+    public Map<Integer, Project> projects() {
+        return snapshot().projects();
+    }
 
     /**
      * Gets the project with the given ID.
@@ -50,41 +144,214 @@ public final class Storage {
      */
     @Nullable
     public Project project(int id) {
-        return projects.get(id);
+        return snapshot().project(id);
+    }
+
+    /**
+     * Creates a pre-resolved handle for the given translation key.
+     * <p>See {@link TranslationKey} for more information.
+     *
+     * @param projectId the ID of the project the key belongs to
+     * @param key       the translation key
+     * @return the handle
+     */
+    @NotNull
+    public TranslationKey key(int projectId, @NotNull String key) {
+        return new TranslationKey(this, projectId, key);
     }
 
     /**
      * Refreshes the cache in the background.
+     * <p>All projects are published together once every one of them has been fetched. If a refresh is already in
+     * progress, another one is started once it has completed, which is shared by every call made in the meantime.
+     * Projects that have been refreshed since this refresh started are not replaced by it.
      *
      * @param client the Tolgee client
      * @return a future that completes when the cache is refreshed
      */
     @NotNull
     public CompletableFuture<Void> refresh(@NotNull TolgeeClient client) {
-        List<CompletableFuture<Void>> futures = projectIds.stream()
-              .map(projectId -> refreshProject(client, projectId)
-                    .thenAccept(project -> projects.put(projectId, project)))
-              .toList();
-
-        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        return refreshes.run(() -> fetchAndPublish(client));
     }
 
     /**
      * Refreshes the cache of the given project in the background.
+     * <p>If a refresh of the same project is already in progress, another one is started once it has completed,
+     * which is shared by every call made in the meantime.
      *
      * @param client    the Tolgee client
      * @param projectId the project ID
-     * @return a future that completes when the cache is refreshed
+     * @return a future that completes with the published project when the cache is refreshed
      */
     @NotNull
     public CompletableFuture<Project> refreshProject(@NotNull TolgeeClient client, int projectId) {
+        return projectRefreshes.computeIfAbsent(projectId, id -> new SingleFlight<>()).run(() -> {
+            long fetch = fetches.incrementAndGet();
+            return fetchProject(client, projectId).thenApply(project -> publishFetched(List.of(project), fetch).get(0));
+        });
+    }
+
+    /**
+     * Fetches every project and publishes them together.
+     *
+     * @param client the Tolgee client
+     * @return a future that completes when the projects are published
+     */
+    @NotNull
+    private CompletableFuture<Void> fetchAndPublish(@NotNull TolgeeClient client) {
+        long fetch = fetches.incrementAndGet();
+
+        List<CompletableFuture<Project>> futures = projectIds.stream()
+              .map(projectId -> fetchProject(client, projectId))
+              .toList();
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+              .thenRun(() -> {
+                  List<Project> projects = futures.stream().map(CompletableFuture::join).toList();
+                  publishFetched(projects, fetch);
+              });
+    }
+
+    /**
+     * Loads every project from the catalog cache and publishes them, if a cache is configured.
+     * <p>Nothing is published unless every project could be loaded.
+     *
+     * @return whether or not every project has been loaded
+     */
+    public boolean loadCache() {
+        if (cache == null) return false;
+
+        WeaveProcessor processor = processor();
+        List<Project> projects = new ArrayList<>();
+
+        for (int projectId : projectIds) {
+            Project project;
+
+            try {
+                project = cache.load(projectId, processor);
+            } catch (IOException e) {
+                // A corrupt cache is no worse than a missing one, the project will be fetched from Tolgee instead.
+                return false;
+            }
+
+            if (project == null) return false;
+            projects.add(project);
+        }
+
+        publish(projects);
+        return true;
+    }
+
+    /**
+     * Stores and publishes the given projects, unless they have been published from a later fetch in the meantime.
+     *
+     * @param projects the fetched projects
+     * @param fetch    the number of the fetch the projects come from
+     * @return the published version of each of the given projects, which may come from a later fetch
+     */
+    @NotNull
+    private synchronized List<Project> publishFetched(@NotNull List<Project> projects, long fetch) {
+        List<Project> fresh = projects.stream()
+              .filter(project -> publishedFetches.getOrDefault(project.id(), 0L) < fetch)
+              .toList();
+
+        fresh.forEach(project -> publishedFetches.put(project.id(), fetch));
+        publish(persist(fresh));
+
+        return projects.stream().map(project -> Objects.requireNonNull(project(project.id()))).toList();
+    }
+
+    /**
+     * Atomically replaces the current snapshot with one that contains the given projects.
+     * <p>Fallbacks are resolved for every project before it is published.
+     *
+     * @param projects the projects to publish
+     * @return the published projects
+     */
+    @NotNull
+    private List<Project> publish(@NotNull List<Project> projects) {
+        List<Project> published = fallbacks.isEmpty() ? projects : projects.stream()
+              .map(project -> new Project(
+                    project.id(),
+                    project.supportedLanguages(),
+                    LanguageTable.resolve(project.translations(), fallbacks),
+                    project.validators(),
+                    project.version()))
+              .toList();
+
+        snapshot.updateAndGet(current -> current.with(published));
+
+        if (renderCache != null) {
+            // Entries of the previous versions can never be hit again, release their memory right away.
+            published.forEach(project -> renderCache.invalidate(project.id()));
+        }
+
+        return published;
+    }
+
+    /**
+     * Stores the given projects in the catalog cache, if a cache is configured.
+     * <p>The cache is best effort: failing to write it never fails a refresh.
+     *
+     * @param projects the projects to store
+     * @return the projects to publish, which are served from the stored catalogs if {@link #mapCatalog()} is set
+     */
+    @NotNull
+    private List<Project> persist(@NotNull List<Project> projects) {
+        if (cache == null) return projects;
+
+        List<Project> published = new ArrayList<>(projects.size());
+
+        for (Project project : projects) {
+            Project mapped = null;
+
+            try {
+                cache.save(project);
+                if (mapCatalog) mapped = cache.load(project.id(), processor());
+            } catch (IOException ignored) {
+                // The next successful refresh will try again, until then the fetched project is served from the heap.
+            }
+
+            published.add(mapped == null ? project : mapped);
+        }
+
+        return published;
+    }
+
+    /**
+     * Gets the processor used for every translation of this storage.
+     * <p>The pre- and post-processors are compiled once, on first use.
+     *
+     * @return the processor
+     */
+    @NotNull
+    private WeaveProcessor processor() {
+        WeaveProcessor processor = this.processor;
+
+        if (processor == null) {
+            // Compiling is side effect free, so two threads racing here at worst compile the pipeline twice.
+            processor = WeaveProcessor.of(preProcessors, postProcessors);
+            this.processor = processor;
+        }
+
+        return processor;
+    }
+
+    /**
+     * Fetches the given project without publishing it.
+     *
+     * @param client    the Tolgee client
+     * @param projectId the project ID
+     * @return a future that completes with the fetched project
+     */
+    @NotNull
+    private CompletableFuture<Project> fetchProject(@NotNull TolgeeClient client, int projectId) {
         CompletableFuture<Project> future = new CompletableFuture<>();
 
-        int oldProjectVersion = Optional.ofNullable(projects.get(projectId))
-              .map(Project::version)
-              .orElse(0);
+        Project previous = project(projectId);
+        int oldProjectVersion = previous == null ? 0 : previous.version();
 
-        WeaveProcessor processor = WeaveProcessor.of(postProcessors.toArray(PostProcessor[]::new));
+        WeaveProcessor processor = processor();
 
         CompletableFuture<List<LanguagesResponse.Language>> languagesFuture = client.querySupportedLanguages(client, projectId);
         languagesFuture.whenComplete((languages, throwable) -> {
@@ -95,37 +362,19 @@ public final class Storage {
 
             if (languages.isEmpty()) {
                 // If there are no languages, there won't be any translations either.
-                future.complete(new Project(projectId, Map.of(), Map.of(), oldProjectVersion + 1));
+                future.complete(new Project(projectId, Map.of(), Map.of(), Map.of(), oldProjectVersion + 1));
                 return;
             }
 
-            Map<String, Map<String, Translation>> translations = new HashMap<>();
-
-            List<CompletableFuture<Void>> languageFutures = languages.stream()
-                  .map(language -> client.queryTranslations(client, projectId, language.tag())
-                        .thenAccept(map -> {
-                            Map<String, String> keyToValue = map.get(language.tag());
-
-                            if (keyToValue == null) {
-                                // This should never happen since we're querying the translations for the given language.
-                                throw new IllegalStateException("No translations for language " + language.tag());
-                            }
+            // Languages are fetched concurrently, so their results are collected in concurrent maps first.
+            Map<String, Map<String, Translation>> translations = new ConcurrentHashMap<>();
+            Map<String, TranslationsResponse.Validators> validators = new ConcurrentHashMap<>();
 
-                            Map<String, Translation> translationMap = new HashMap<>();
-
-                            keyToValue.forEach((key, value) -> {
-                                if (value == null) {
-                                    // The value can be null if this key is not translated in the given language.
-                                    // Example: "en" has "hello" -> "Hello World!", but "de" doesn't have this key translated yet.
-                                    return;
-                                }
-
-                                // We iterate through each (translation key -> text) pair and add it to the map.
-                                translationMap.put(key, new Translation(value, processor));
-                            });
-
-                            translations.put(language.tag(), translationMap);
-                        }))
+            List<String> tags = languages.stream().map(LanguagesResponse.Language::tag).toList();
+            List<CompletableFuture<Void>> languageFutures = bulkFetch
+                  ? List.of(fetchTranslations(client, projectId, tags, previous, processor, translations, validators))
+                  : tags.stream()
+                  .map(tag -> fetchTranslations(client, projectId, List.of(tag), previous, processor, translations, validators))
                   .toList();
 
             CompletableFuture.allOf(languageFutures.toArray(CompletableFuture[]::new))
@@ -137,8 +386,9 @@ public final class Storage {
 
                       future.complete(new Project(
                             projectId,
-                            languages.stream().collect(HashMap::new, (map, language) -> map.put(language.tag(), Language.findOrCreate(language.tag(), language.name())), HashMap::putAll),
-                            translations,
+                            Map.copyOf(languages.stream().collect(HashMap::new, (map, language) -> map.put(language.tag(), Language.findOrCreate(language.tag(), language.name())), HashMap::putAll)),
+                            Map.copyOf(translations),
+                            Map.copyOf(validators),
                             oldProjectVersion + 1));
                   });
         });
@@ -146,4 +396,226 @@ public final class Storage {
         return future;
     }
 
+    /**
+     * Fetches the translations of the given languages with a single request.
+     *
+     * @param client       the Tolgee client
+     * @param projectId    the project ID
+     * @param tags         the tags of the languages to fetch
+     * @param previous     the previously fetched version of the project, if any
+     * @param processor    the processor to use for new translations
+     * @param translations the map to add the translations of each language to
+     * @param validators   the map to add the validators of each language to
+     * @return a future that completes once the translations have been added
+     */
+    @NotNull
+    private CompletableFuture<Void> fetchTranslations(@NotNull TolgeeClient client,
+                                                      int projectId,
+                                                      @NotNull List<String> tags,
+                                                      @Nullable Project previous,
+                                                      @NotNull WeaveProcessor processor,
+                                                      @NotNull Map<String, Map<String, Translation>> translations,
+                                                      @NotNull Map<String, TranslationsResponse.Validators> validators) {
+        TranslationsResponse.Validators previousValidators = incrementalRefresh
+              ? previousValidators(previous, tags)
+              : TranslationsResponse.Validators.NONE;
+
+        // Translations are added while the response is being parsed, so the raw response is never held in memory.
+        Map<String, Map<String, Translation>> fetched = new HashMap<>();
+        tags.forEach(tag -> fetched.put(tag, new HashMap<>()));
+
+        TranslationsConsumer consumer = (tag, key, value) -> {
+            Map<String, Translation> translationMap = fetched.get(tag);
+
+            if (value == null || translationMap == null) {
+                // The value can be null if this key is not translated in the given language.
+                // Example: "en" has "hello" -> "Hello World!", but "de" doesn't have this key translated yet.
+                return;
+            }
+
+            // Unchanged translations are reused, so their compiled templates don't have to be rebuilt.
+            Map<String, Translation> previousTranslations = previous == null ? null : previous.translations().get(tag);
+            Translation previousTranslation = previousTranslations == null ? null : previousTranslations.get(key);
+
+            if (previousTranslation != null && previousTranslation.value().equals(value)) {
+                translationMap.put(key, previousTranslation);
+                return;
+            }
+
+            // We iterate through each (translation key -> text) pair and add it to the map.
+            translationMap.put(key, new Translation(value, processor));
+        };
+
+        return client.queryTranslations(client, projectId, String.join(",", tags), previousValidators, consumer)
+              .thenAccept(response -> {
+                  for (String tag : tags) {
+                      validators.put(tag, response.validators());
+
+                      if (!response.modified()) {
+                          // Not modified since the last refresh, the previous translations are still valid.
+                          translations.put(tag, Objects.requireNonNull(previous).translations().get(tag));
+                          continue;
+                      }
+
+                      translations.put(tag, Collections.unmodifiableMap(fetched.get(tag)));
+                  }
+              });
+    }
+
+    /**
+     * Gets the validators to send when fetching the given languages again.
+     * <p>A response is only validated as a whole, so the previous validators are only sent if every language has been
+     * fetched with the same response before. Otherwise, all of them are fetched again.
+     *
+     * @param previous the previously fetched version of the project, if any
+     * @param tags     the tags of the languages to fetch
+     * @return the validators to send
+     */
+    @NotNull
+    private static TranslationsResponse.Validators previousValidators(@Nullable Project previous, @NotNull List<String> tags) {
+        if (previous == null) return TranslationsResponse.Validators.NONE;
+
+        TranslationsResponse.Validators shared = null;
+
+        for (String tag : tags) {
+            // Only ask the server to skip unchanged languages if we still have their translations.
+            if (!previous.translations().containsKey(tag)) return TranslationsResponse.Validators.NONE;
+
+            TranslationsResponse.Validators validators = previous.validators().getOrDefault(tag, TranslationsResponse.Validators.NONE);
+            if (shared != null && !shared.equals(validators)) return TranslationsResponse.Validators.NONE;
+
+            shared = validators;
+        }
+
+        return shared == null ? TranslationsResponse.Validators.NONE : shared;
+    }
+
+    /**
+     * Collects the settings of a {@link Storage}, see {@link wtf.villain.weave.builder.WeaveInstanceBuilder} for what
+     * each of them does.
+     */
+    public static final class Builder {
+
+        private final List<Integer> projectIds;
+        private List<PreProcessor> preProcessors = List.of();
+        private List<PostProcessor> postProcessors = List.of();
+        private boolean incrementalRefresh = true;
+        private boolean bulkFetch;
+        @Nullable
+        private CatalogCache cache;
+        private boolean mapCatalog;
+        private FallbackChains fallbacks = FallbackChains.NONE;
+        @Nullable
+        private RenderCache renderCache;
+
+        private Builder(@NotNull List<Integer> projectIds) {
+            this.projectIds = projectIds;
+        }
+
+        /**
+         * Sets the pre-processors.
+         *
+         * @param preProcessors the pre-processors, in the order they should be applied
+         * @return the builder
+         */
+        @NotNull
+        public Builder preProcessors(@NotNull List<PreProcessor> preProcessors) {
+            this.preProcessors = preProcessors;
+            return this;
+        }
+
+        /**
+         * Sets the post-processors.
+         *
+         * @param postProcessors the post-processors, in the order they should be applied
+         * @return the builder
+         */
+        @NotNull
+        public Builder postProcessors(@NotNull List<PostProcessor> postProcessors) {
+            this.postProcessors = postProcessors;
+            return this;
+        }
+
+        /**
+         * Sets whether or not unchanged languages are skipped on refresh.
+         *
+         * @param incrementalRefresh whether or not refreshes are incremental
+         * @return the builder
+         */
+        @NotNull
+        public Builder incrementalRefresh(boolean incrementalRefresh) {
+            this.incrementalRefresh = incrementalRefresh;
+            return this;
+        }
+
+        /**
+         * Sets whether or not all languages of a project are fetched with a single request.
+         *
+         * @param bulkFetch whether or not languages are fetched together
+         * @return the builder
+         */
+        @NotNull
+        public Builder bulkFetch(boolean bulkFetch) {
+            this.bulkFetch = bulkFetch;
+            return this;
+        }
+
+        /**
+         * Sets the catalog cache.
+         *
+         * @param cache the catalog cache, or {@code null} for none
+         * @return the builder
+         */
+        @NotNull
+        public Builder cache(@Nullable CatalogCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets whether or not projects are served from memory-mapped catalogs.
+         *
+         * @param mapCatalog whether or not catalogs are memory-mapped
+         * @return the builder
+         */
+        @NotNull
+        public Builder mapCatalog(boolean mapCatalog) {
+            this.mapCatalog = mapCatalog;
+            return this;
+        }
+
+        /**
+         * Sets the fallback languages.
+         *
+         * @param fallbacks the fallback chains
+         * @return the builder
+         */
+        @NotNull
+        public Builder fallbacks(@NotNull FallbackChains fallbacks) {
+            this.fallbacks = fallbacks;
+            return this;
+        }
+
+        /**
+         * Sets the render cache.
+         *
+         * @param renderCache the render cache, or {@code null} for none
+         * @return the builder
+         */
+        @NotNull
+        public Builder renderCache(@Nullable RenderCache renderCache) {
+            this.renderCache = renderCache;
+            return this;
+        }
+
+        /**
+         * Creates the storage.
+         *
+         * @return the storage
+         */
+        @NotNull
+        public Storage build() {
+            return new Storage(this);
+        }
+    }
 }
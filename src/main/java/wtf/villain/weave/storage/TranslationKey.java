@@ -0,0 +1,185 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.translation.Arguments;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A pre-resolved handle to a translation key of a project.
+ * <p>The first lookup of each language resolves the key through the project as usual. Every following lookup is a
+ * single array access indexed by {@link Language#ordinal()}, without hashing the key or the language tag. Handles
+ * stay valid across refreshes: once a new version of the project has been published, the next lookup resolves the
+ * key again.
+ * <p>Handles are thread-safe and meant to be created once and kept, for example in a static field.
+ */
+public final class TranslationKey {
+
+    // Marks a key that is known to be missing in a language, so the miss is cached as well.
+    private static final Translation MISSING = new Translation("");
+
+    private final Storage storage;
+    private final int projectId;
+    private final String key;
+
+    private volatile Resolution resolution = new Resolution(null, null, new Translation[0]);
+
+    TranslationKey(@NotNull Storage storage, int projectId, @NotNull String key) {
+        this.storage = storage;
+        this.projectId = projectId;
+        this.key = key;
+    }
+
+    /**
+     * Gets the ID of the project this key belongs to.
+     *
+     * @return the project ID
+     */
+    public int projectId() {
+        return projectId;
+    }
+
+    /**
+     * Gets the translation key.
+     *
+     * @return the key
+     */
+    @NotNull
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Gets the translation of this key in the given language.
+     *
+     * @param language the language to get the translation for
+     * @return the translation, or {@code null} if the key is not translated in the given language
+     * @throws IllegalArgumentException if the project does not exist or does not support the given language
+     * @throws IllegalStateException    if there are no translations for the given language
+     */
+    @Nullable
+    public Translation translation(@NotNull Language language) {
+        return translation(resolve(), language);
+    }
+
+    @Nullable
+    private Translation translation(@NotNull Resolution resolution, @NotNull Language language) {
+        int ordinal = language.ordinal();
+
+        if (ordinal >= resolution.translations.length) {
+            // The language is not supported by the project, let the project report it.
+            return resolution.project.translation(language, key);
+        }
+
+        Translation translation = resolution.translations[ordinal];
+
+        if (translation == null) {
+            translation = resolution.project.translation(language, key);
+
+            // Racing threads store the same value, so a plain write is enough.
+            resolution.translations[ordinal] = translation == null ? MISSING : translation;
+        }
+
+        return translation == MISSING ? null : translation;
+    }
+
+    /**
+     * Formats the translation of this key in the given language.
+     * <p>If a {@link RenderCache} is configured, repeated calls with equal arguments return the cached result.
+     *
+     * @param language the language to format the translation in
+     * @param formats  the formats to use
+     * @return the formatted translation, or {@code null} if the key is not translated in the given language
+     * @throws IllegalArgumentException if the project does not exist or does not support the given language
+     * @throws IllegalStateException    if there are no translations for the given language
+     */
+    @Nullable
+    public String format(@NotNull Language language, @NotNull Map<String, Object> formats) {
+        return format(language, Arguments.of(formats));
+    }
+
+    /**
+     * Formats the translation of this key in the given language, see {@link #format(Language, Map)}.
+     *
+     * @param language  the language to format the translation in
+     * @param arguments the resolved arguments to use
+     * @return the formatted translation, or {@code null} if the key is not translated in the given language
+     */
+    @Nullable
+    public String format(@NotNull Language language, @NotNull Arguments arguments) {
+        // The translation and the project keying the cache entry must come from the same resolution, otherwise a
+        // concurrent refresh could cache an old translation under the version of the new project.
+        Resolution resolution = resolve();
+        Translation translation = translation(resolution, language);
+        if (translation == null) return null;
+
+        RenderCache renderCache = storage.renderCache();
+        if (renderCache == null) return arguments.format(translation);
+
+        return renderCache.format(resolution.project, translation, arguments);
+    }
+
+    /**
+     * Formats the translation of this key in each of the given languages.
+     * <p>The arguments are resolved once and reused for every language, see {@link Arguments}.
+     *
+     * @param languages the languages to format the translation in
+     * @param formats   the formats to use
+     * @return the formatted translations keyed by language, in the order of the given languages, without languages
+     * this key is not translated in
+     * @throws IllegalArgumentException if the project does not exist or does not support one of the given languages
+     * @throws IllegalStateException    if there are no translations for one of the given languages
+     */
+    @NotNull
+    public Map<Language, String> formatForLanguages(@NotNull Collection<Language> languages, @NotNull Map<String, Object> formats) {
+        return formatForLanguages(languages, formats, false);
+    }
+
+    /**
+     * Formats the translation of this key in each of the given languages, optionally in parallel.
+     * See {@link #formatForLanguages(Collection, Map)}.
+     *
+     * @param parallel whether or not the translations should be formatted in parallel
+     */
+    @NotNull
+    public Map<Language, String> formatForLanguages(@NotNull Collection<Language> languages, @NotNull Map<String, Object> formats, boolean parallel) {
+        return Arguments.of(formats).formatEach(languages, this::translation, parallel);
+    }
+
+    @NotNull
+    private Resolution resolve() {
+        Snapshot snapshot = storage.snapshot();
+        Resolution resolution = this.resolution;
+
+        if (resolution.snapshot == snapshot) return resolution;
+
+        Project project = snapshot.project(projectId);
+        if (project == null) throw new IllegalArgumentException("No project with ID " + projectId);
+
+        if (project == resolution.project) {
+            // Another project has been refreshed, the resolved translations of this one are still valid.
+            resolution = new Resolution(snapshot, project, resolution.translations);
+        } else {
+            int length = 0;
+            for (Language language : project.supportedLanguages().values()) {
+                length = Math.max(length, language.ordinal() + 1);
+            }
+
+            resolution = new Resolution(snapshot, project, new Translation[length]);
+        }
+
+        this.resolution = resolution;
+        return resolution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranslationKey[projectId=%d, key=%s]", projectId, key);
+    }
+
+    private record Resolution(Snapshot snapshot, Project project, Translation @NotNull [] translations) {
+    }
+}
@@ -0,0 +1,247 @@
+package wtf.villain.weave.translation;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Formatting arguments that have been resolved once, so they can be applied to many translations.
+ * <p>The argument names and values are split into two arrays when the arguments are created. Formatting a
+ * translation then reuses the prepared translation for those names and passes the same value array every time,
+ * instead of hashing a map per translation. Arguments created by {@link #of(Map)} and {@link #of(List, Object...)}
+ * own their arrays, so they are immutable and may be shared between threads.
+ * <p>Post-processors receive the arguments a translation has been formatted with as a view of the prepared keys and
+ * the given values, see {@link wtf.villain.weave.translation.process.Text#arguments()}. The view does not copy them, so
+ * it reflects later changes the caller makes to the value array and is only meant to be read while the post-processor
+ * runs. A post-processor that keeps the arguments for later must keep a {@link #copy()} instead.
+ * <p>Two arguments are equal if they have the same names and equal values in the same order.
+ */
+public final class Arguments {
+
+    /**
+     * Arguments without any names or values.
+     */
+    public static final Arguments NONE = new Arguments(new String[0], new Object[0]);
+
+    private final String[] names;
+    private final Object[] values;
+
+    // Computed on first use, as views created while formatting are hardly ever hashed.
+    private int hashCode;
+
+    private Arguments(@NotNull String @NotNull [] names, Object @NotNull [] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Creates a view of the given names and values without copying them.
+     *
+     * @param names  the argument names
+     * @param values the argument values, in the order of the names
+     * @return the view
+     */
+    @NotNull
+    static Arguments view(@NotNull String @NotNull [] names, Object @NotNull [] values) {
+        return new Arguments(names, values);
+    }
+
+    /**
+     * Resolves the given arguments.
+     *
+     * @param formats the formats to use, keyed by their name
+     * @return the resolved arguments
+     */
+    @NotNull
+    public static Arguments of(@NotNull Map<String, Object> formats) {
+        String[] names = new String[formats.size()];
+        Object[] values = new Object[formats.size()];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : formats.entrySet()) {
+            names[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        return new Arguments(names, values);
+    }
+
+    /**
+     * Resolves the given arguments.
+     * <p>The names and values are copied.
+     *
+     * @param names  the argument names
+     * @param values the argument values, in the order of the names
+     * @return the resolved arguments
+     */
+    @NotNull
+    public static Arguments of(@NotNull List<String> names, Object @NotNull ... values) {
+        return new Arguments(names.toArray(String[]::new), values.clone());
+    }
+
+    /**
+     * Gets a copy of these arguments that does not share any array with them, see {@link Arguments}.
+     *
+     * @return the copy
+     */
+    @NotNull
+    public Arguments copy() {
+        // The names are the prepared keys, which are never modified, so only the values have to be copied.
+        return this == NONE ? NONE : new Arguments(names, values.clone());
+    }
+
+    /**
+     * Gets the number of arguments.
+     *
+     * @return the number of arguments
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Gets the name of the argument at the given index.
+     *
+     * @param index the index of the argument
+     * @return the name
+     * @throws IndexOutOfBoundsException if there is no argument at the given index
+     */
+    @NotNull
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Gets the value of the argument at the given index.
+     *
+     * @param index the index of the argument
+     * @return the value, or {@code null} if no value has been given for the argument
+     * @throws IndexOutOfBoundsException if there is no argument at the given index
+     */
+    @Nullable
+    public Object value(int index) {
+        Objects.checkIndex(index, names.length);
+        return index < values.length ? values[index] : null;
+    }
+
+    /**
+     * Gets the value of the argument with the given name.
+     *
+     * @param name the name of the argument
+     * @return the value, or {@code null} if there is no such argument
+     */
+    @Nullable
+    public Object get(@NotNull String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return value(i);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether or not there is an argument with the given name.
+     *
+     * @param name the name of the argument
+     * @return whether or not the argument exists
+     */
+    public boolean contains(@NotNull String name) {
+        for (String candidate : names) {
+            if (candidate.equals(name)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the argument values, in the order of their names.
+     * <p>The returned array is not copied and must not be modified.
+     *
+     * @return the values
+     */
+    Object @NotNull [] values() {
+        return values;
+    }
+
+    /**
+     * Formats the given translation with these arguments.
+     *
+     * @param translation the translation to format
+     * @return the formatted translation
+     */
+    @NotNull
+    public String format(@NotNull Translation translation) {
+        return translation.prepare(names).format(values);
+    }
+
+    /**
+     * Formats the translation of each of the given items with these arguments.
+     *
+     * @param items    the items to format, for example translation keys or languages
+     * @param lookup   the function that finds the translation of an item, returning {@code null} if there is none
+     * @param parallel whether or not the items should be formatted in parallel
+     * @param <K>      the type of the items
+     * @return the formatted translations in the order of the given items, without items that have no translation
+     */
+    @NotNull
+    public <K> Map<K, String> formatEach(@NotNull Collection<K> items,
+                                         @NotNull Function<K, @Nullable Translation> lookup,
+                                         boolean parallel) {
+        if (parallel) {
+            return items.parallelStream()
+                  .map(item -> {
+                      Translation translation = lookup.apply(item);
+                      return translation == null ? null : Map.entry(item, format(translation));
+                  })
+                  .filter(Objects::nonNull)
+                  .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        Map<K, String> formatted = new LinkedHashMap<>();
+
+        for (K item : items) {
+            Translation translation = lookup.apply(item);
+            if (translation != null) formatted.put(item, format(translation));
+        }
+
+        return formatted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Arguments other)) return false;
+        return hashCode() == other.hashCode() && Arrays.equals(names, other.names) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+
+        if (hashCode == 0) {
+            hashCode = 31 * Arrays.hashCode(names) + Arrays.hashCode(values);
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Arguments[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(names[i]).append('=').append(value(i));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -1,26 +1,59 @@
 package wtf.villain.weave.translation;
 
-import com.ibm.icu.text.MessageFormat;
 import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.translation.format.RichTextHandler;
+import wtf.villain.weave.translation.format.Template;
+import wtf.villain.weave.translation.process.WeaveProcessor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * A translation bound to an ordered list of argument names.
+ * <p>Prepared translations are immutable and may be shared between threads. They share the compiled {@link Template}
+ * of their translation, so preparing a translation with several key sets does not parse it again.
+ */
 public final class PreparedTranslation {
 
     private final Translation translation;
-    private final MessageFormat messageFormat;
+    private final Template template;
 
     private final String[] keys;
-    private final Map<String, Object> preparedFormats = new HashMap<>();
+    private final int[] slots;
 
     PreparedTranslation(@NotNull Translation translation, @NotNull List<String> keys) {
         this.translation = translation;
-        this.messageFormat = new MessageFormat(translation.value());
+        this.template = translation.template();
         this.keys = keys.toArray(new String[0]);
-        keys.forEach(key -> preparedFormats.put(key, null));
+        this.slots = template.bind(this.keys);
+    }
+
+    /**
+     * Gets the compiled template this translation formats.
+     *
+     * @return the template
+     */
+    @NotNull
+    public Template template() {
+        return template;
+    }
+
+    /**
+     * Gets the keys this translation was prepared with, in the order their values are expected.
+     *
+     * @return the keys
+     */
+    @NotNull
+    public List<String> keys() {
+        return List.of(keys);
     }
 
     /**
@@ -31,11 +64,11 @@ public final class PreparedTranslation {
      */
     @NotNull
     public String format(@NotNull Object... objects) {
-        for (int i = 0; i < keys.length; i++) {
-            preparedFormats.put(keys[i], objects[i]);
-        }
+        String text = render(objects);
+        WeaveProcessor processor = translation.processor();
 
-        return translation.processor().apply(translation, this.messageFormat.format(preparedFormats));
+        // Post-processors see the arguments through a view of the keys and the given objects, nothing is copied.
+        return processor.dynamic() ? processor.apply(translation, text, Arguments.view(keys, objects)) : text;
     }
 
     /**
@@ -46,11 +79,200 @@ public final class PreparedTranslation {
      */
     @NotNull
     public String format(@NotNull List<Object> objects) {
+        return format(objects.toArray());
+    }
+
+    /**
+     * Formats the translation with the given arguments.
+     * <p>Only the keys this translation was prepared with are used, any other entry is ignored.
+     *
+     * @param formats the formats to use, keyed by their name
+     * @return the formatted translation
+     */
+    @NotNull
+    public String format(@NotNull Map<String, Object> formats) {
+        Object[] objects = new Object[keys.length];
+
         for (int i = 0; i < keys.length; i++) {
-            preparedFormats.put(keys[i], objects.get(i));
+            objects[i] = formats.get(keys[i]);
         }
 
-        return translation.processor().apply(translation, this.messageFormat.format(preparedFormats));
+        return format(objects);
+    }
+
+    /**
+     * Formats the translation with the given arguments into the given output.
+     * <p>Simple templates ({@code {name}} arguments only) are written directly to the output without creating any
+     * intermediate objects, as long as the translation has no dynamic post-processors and no argument is a number or
+     * date.
+     *
+     * @param out     the output to append to
+     * @param objects the objects to use
+     * @param <A>     the type of the output
+     * @return the given output
+     * @throws UncheckedIOException if the output throws an {@link IOException}
+     */
+    @NotNull
+    public <A extends Appendable> A formatTo(@NotNull A out, @NotNull Object... objects) {
+        try {
+            if (!translation.processor().dynamic() && template.renderable(slots, objects)) {
+                template.appendTo(out, slots, objects);
+            } else {
+                out.append(format(objects));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out;
+    }
+
+    /**
+     * Formats the translation with the given arguments and writes it as UTF-8 into the given buffer.
+     * <p>The same templates as for {@link #formatTo(Appendable, Object...)} are written without creating a string:
+     * their literal text is encoded once and only the argument values are encoded on every call.
+     * <p>If the buffer does not have enough space left, nothing is written and its position is left unchanged.
+     *
+     * @param out     the buffer to write to
+     * @param objects the objects to use
+     * @return the given buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space left
+     */
+    @NotNull
+    public ByteBuffer writeTo(@NotNull ByteBuffer out, @NotNull Object... objects) {
+        if (!translation.processor().dynamic() && template.renderable(slots, objects)) {
+            template.writeTo(out, slots, objects);
+        } else {
+            out.put(format(objects).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return out;
+    }
+
+    /**
+     * Formats the translation with the given arguments and writes it as UTF-8 into the given stream, see
+     * {@link #writeTo(ByteBuffer, Object...)}.
+     *
+     * @param out     the stream to write to
+     * @param objects the objects to use
+     * @param <O>     the type of the stream
+     * @return the given stream
+     * @throws UncheckedIOException if the stream throws an {@link IOException}
+     */
+    @NotNull
+    public <O extends OutputStream> O writeTo(@NotNull O out, @NotNull Object... objects) {
+        try {
+            if (!translation.processor().dynamic() && template.renderable(slots, objects)) {
+                template.writeTo(out, slots, objects);
+            } else {
+                out.write(format(objects).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out;
+    }
+
+    /**
+     * Formats the translation with the given arguments into the given rich text handler.
+     * <p>Markup tags of the translation are parsed once, when the translation is first formatted this way, and
+     * argument values are passed to the handler as they are, so renderers can build their components directly.
+     * Argument values are never parsed as markup, but tags may contain arguments. Post-processors work on plain text
+     * and are not applied, pre-processors and static post-processors are. See
+     * {@link Template#appendTo(RichTextHandler, int[], Object[])}.
+     *
+     * @param handler the handler to render into
+     * @param objects the objects to use
+     * @param <H>     the type of the handler
+     * @return the given handler
+     */
+    @NotNull
+    public <H extends RichTextHandler> H formatRich(@NotNull H handler, @NotNull Object... objects) {
+        template.appendTo(handler, slots, objects);
+        return handler;
+    }
+
+    /**
+     * Formats the translation without applying post-processors.
+     *
+     * @param objects the objects to use
+     * @return the formatted text
+     */
+    @NotNull
+    private String render(@NotNull Object[] objects) {
+        if (template.renderable(slots, objects)) {
+            StringBuilder builder = new StringBuilder(template.lengthHint());
+
+            try {
+                template.appendTo(builder, slots, objects);
+            } catch (IOException e) {
+                // StringBuilder never throws.
+                throw new UncheckedIOException(e);
+            }
+
+            return builder.toString();
+        }
+
+        Map<String, Object> formats = new HashMap<>();
+
+        for (int i = 0; i < keys.length && i < objects.length; i++) {
+            formats.put(keys[i], objects[i]);
+        }
+
+        return template.format(formats);
+    }
+
+    /**
+     * Checks whether or not this translation was prepared with exactly the given keys, in the given order.
+     *
+     * @param keys the keys to check
+     * @return whether or not the keys match
+     */
+    boolean matches(@NotNull List<String> keys) {
+        if (keys.size() != this.keys.length) return false;
+
+        for (int i = 0; i < this.keys.length; i++) {
+            if (!this.keys[i].equals(keys.get(i))) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether or not this translation was prepared with exactly the given keys, in any order.
+     *
+     * @param keys the keys to check
+     * @return whether or not the keys match
+     */
+    boolean matches(@NotNull Set<String> keys) {
+        if (keys.size() != this.keys.length) return false;
+
+        for (String key : this.keys) {
+            if (!keys.contains(key)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether or not this translation was prepared with exactly the given keys, in the given order.
+     *
+     * @param keys the keys to check
+     * @return whether or not the keys match
+     */
+    boolean matches(@NotNull String @NotNull [] keys) {
+        return Arrays.equals(this.keys, keys);
+    }
+
+    /**
+     * Checks whether or not this translation was prepared with the same keys as the given one.
+     *
+     * @param other the prepared translation to compare with
+     * @return whether or not the keys match
+     */
+    boolean sameKeys(@NotNull PreparedTranslation other) {
+        return matches(other.keys);
     }
 
     @Override
@@ -1,29 +1,94 @@
 package wtf.villain.weave.translation;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wtf.villain.weave.translation.format.Template;
 import wtf.villain.weave.translation.process.WeaveProcessor;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
-@Getter
-@RequiredArgsConstructor
 public final class Translation {
 
+    private static final PreparedTranslation[] NOT_PREPARED = new PreparedTranslation[0];
+    private static final int MAX_PREPARED = 8;
+
+    private static final AtomicReferenceFieldUpdater<Translation, PreparedTranslation[]> PREPARED =
+          AtomicReferenceFieldUpdater.newUpdater(Translation.class, PreparedTranslation[].class, "prepared");
+
+    @Getter
     @NotNull
     private final String value;
 
+    @Getter
     @NotNull
     private final WeaveProcessor processor;
 
+    @Nullable
+    private volatile String pattern;
+
+    @Nullable
+    private volatile Template template;
+
+    // Every key set this translation has been prepared with, in the order they were prepared. There is usually only
+    // one, so a copy-on-write array is both the smallest and the fastest structure to search.
+    private volatile PreparedTranslation @NotNull [] prepared = NOT_PREPARED;
+
+    // The translation prepared with the argument names in pattern order, used by positional formatting.
+    @Nullable
+    private volatile PreparedTranslation inOrder;
+
+    public Translation(@NotNull String value, @NotNull WeaveProcessor processor) {
+        this.value = value;
+        this.processor = processor;
+    }
+
     public Translation(@NotNull String value) {
         this(value, WeaveProcessor.of());
     }
 
-    private final ThreadLocal<PreparedTranslation> prepared = new ThreadLocal<>();
+    /**
+     * Gets the value after the pre-processors and static post-processors have been applied, which is what the
+     * template is compiled from.
+     * <p>The value is processed on first use rather than in the constructor, so processors are only ever handed a
+     * fully constructed translation.
+     *
+     * @return the processed value
+     */
+    @NotNull
+    public String pattern() {
+        String pattern = this.pattern;
+
+        if (pattern == null) {
+            // Processing only depends on the value, so two threads racing here at worst process it twice.
+            pattern = processor.processTemplate(this, value);
+            this.pattern = pattern;
+        }
+
+        return pattern;
+    }
+
+    /**
+     * Gets the compiled template of this translation.
+     * <p>The template is compiled on first use and shared by every prepared translation.
+     *
+     * @return the compiled template
+     */
+    @NotNull
+    public Template template() {
+        Template template = this.template;
+
+        if (template == null) {
+            // Compiling is side effect free, so two threads racing here at worst compile the same template twice.
+            template = Template.compile(pattern());
+            this.template = template;
+        }
+
+        return template;
+    }
 
     /**
      * Formats the translation with the given arguments.
@@ -35,41 +100,53 @@ public final class Translation {
     @NotNull
     public String format(@NotNull Map<String, Object> formats) {
         PreparedTranslation prepared = prepare(formats.keySet());
-        return prepared.format(formats.values().toArray());
+        return prepared.format(formats);
     }
 
     /**
      * Formats the translation with the given arguments.
-     * <p>The translation must have been prepared before it can be formatted using this method, as the keys are not
-     * provided.
+     * <p>The arguments are always expected in the order they first appear in the translation, see
+     * {@link #prepareInOrder()}, no matter which keys the translation has been prepared with. To pass the arguments in
+     * another order, format the {@link PreparedTranslation} returned by {@link #prepare(String...)} instead.
      *
      * @param formats the formats to use
      * @return the formatted translation
-     * @throws IllegalStateException if the translation has not been prepared
+     * @deprecated this used to bind the arguments in the order of the keys the calling thread had last prepared the
+     * translation with. Code that prepares the keys in another order than they appear in, such as
+     * {@code prepare("b", "a")} followed by {@code format(x, y)}, now has its arguments swapped. Use
+     * {@code prepareInOrder().format(...)} or the {@link PreparedTranslation} returned by {@link #prepare(String...)},
+     * which make the order explicit.
      */
     @NotNull
+    @Deprecated
     public String format(@NotNull Object... formats) {
-        PreparedTranslation prepared = this.prepared.get();
-        if (prepared == null) throw new IllegalStateException("Translation has not been prepared");
-        return prepared.format(formats);
+        PreparedTranslation inOrder = this.inOrder;
+
+        if (inOrder == null) {
+            // Preparing returns the shared instance, so racing threads store the same value.
+            inOrder = prepareInOrder();
+            this.inOrder = inOrder;
+        }
+
+        return inOrder.format(formats);
     }
 
     /**
      * Prepares the translation for formatting.
      * <p>Preparation is required before a translation can be formatted.
-     * <p>See {@link PreparedTranslation} for more information.
+     * <p>Prepared translations are shared between all threads, so preparing the same keys again returns the same
+     * instance. See {@link PreparedTranslation} for more information.
      *
      * @param keys the keys to prepare the translation with
      * @return the prepared translation
      */
     @NotNull
     public PreparedTranslation prepare(@NotNull List<String> keys) {
-        PreparedTranslation prepared = this.prepared.get();
-        if (prepared != null) return prepared; // Avoid copying the list if possible
+        for (PreparedTranslation prepared : this.prepared) {
+            if (prepared.matches(keys)) return prepared; // Avoid copying the list if possible
+        }
 
-        prepared = new PreparedTranslation(this, keys);
-        this.prepared.set(prepared);
-        return prepared;
+        return register(new PreparedTranslation(this, keys));
     }
 
     /**
@@ -82,8 +159,9 @@ public final class Translation {
      */
     @NotNull
     public PreparedTranslation prepare(@NotNull Set<String> keys) {
-        PreparedTranslation prepared = this.prepared.get();
-        if (prepared != null) return prepared; // Avoid copying the set if possible
+        for (PreparedTranslation prepared : this.prepared) {
+            if (prepared.matches(keys)) return prepared; // Avoid copying the set if possible
+        }
 
         return prepare(List.copyOf(keys));
     }
@@ -94,12 +172,52 @@ public final class Translation {
      */
     @NotNull
     public PreparedTranslation prepare(@NotNull String... keys) {
-        PreparedTranslation prepared = this.prepared.get();
-        if (prepared != null) return prepared; // Avoid copying the array if possible
+        for (PreparedTranslation prepared : this.prepared) {
+            if (prepared.matches(keys)) return prepared; // Avoid copying the array if possible
+        }
 
         return prepare(List.of(keys));
     }
 
+    /**
+     * Prepares the translation with the argument names of its value, in the order they first appear.
+     * <p>For example, {@code "{name} has {count, plural, one {# dog} other {# dogs}}"} is prepared with
+     * {@code ["name", "count"]}.
+     * <p>See {@link PreparedTranslation} for more information.
+     *
+     * @return the prepared translation
+     */
+    @NotNull
+    public PreparedTranslation prepareInOrder() {
+        return prepare(template().argumentNames());
+    }
+
+    /**
+     * Adds the given prepared translation, unless another thread has prepared the same keys in the meantime.
+     *
+     * @param candidate the prepared translation to add
+     * @return the prepared translation that should be used
+     */
+    @NotNull
+    private PreparedTranslation register(@NotNull PreparedTranslation candidate) {
+        while (true) {
+            PreparedTranslation[] current = this.prepared;
+
+            for (PreparedTranslation prepared : current) {
+                if (prepared.sameKeys(candidate)) return prepared;
+            }
+
+            // Callers that format with ever-changing key sets must not grow this array without bounds.
+            if (current.length >= MAX_PREPARED) return candidate;
+
+            PreparedTranslation[] updated = new PreparedTranslation[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = candidate;
+
+            if (PREPARED.compareAndSet(this, current, updated)) return candidate;
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Translation[value=%s]", value);
@@ -0,0 +1,130 @@
+package wtf.villain.weave.translation.format;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the segments of a template into text runs, arguments and markup tags.
+ * <p>A tag starts with {@code <} or {@code </}, followed by a letter, and ends at the next {@code >}. A {@code /}
+ * right before the {@code >} makes it self-closing. Any other {@code <} is ordinary text. Tags may contain arguments,
+ * for example {@code <click:run_command:/msg {player}>}, but argument values never start or end a tag.
+ */
+final class Markup {
+
+    private Markup() {
+    }
+
+    /**
+     * Splits the given segments.
+     *
+     * @param segments the literal and argument segments to split
+     * @return the text runs, arguments and tags
+     */
+    @NotNull
+    static List<Segment> split(@NotNull List<Segment> segments) {
+        // Characters are stored as they are, arguments as the complement of their index in the segments.
+        int length = 0;
+        for (Segment segment : segments) {
+            length += segment instanceof Segment.Literal literal ? literal.text().length() : 1;
+        }
+
+        int[] tokens = new int[length];
+        int position = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i) instanceof Segment.Literal literal) {
+                for (int c = 0; c < literal.text().length(); c++) {
+                    tokens[position++] = literal.text().charAt(c);
+                }
+            } else {
+                tokens[position++] = ~i;
+            }
+        }
+
+        List<Segment> split = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+
+        for (int index = 0; index < tokens.length; index++) {
+            int end = tokens[index] == '<' ? tagEnd(tokens, index) : -1;
+
+            if (end >= 0) {
+                flush(text, split);
+                split.add(tag(tokens, index, end, segments));
+                index = end;
+            } else if (tokens[index] < 0) {
+                flush(text, split);
+                split.add(segments.get(~tokens[index]));
+            } else {
+                text.append((char) tokens[index]);
+            }
+        }
+
+        flush(text, split);
+        return split;
+    }
+
+    /**
+     * Finds the end of the tag starting at the given position.
+     *
+     * @return the position of the closing {@code >}, or {@code -1} if no tag starts at the given position
+     */
+    private static int tagEnd(int @NotNull [] tokens, int start) {
+        int nameStart = start + 1;
+        if (nameStart < tokens.length && tokens[nameStart] == '/') nameStart++;
+
+        if (nameStart >= tokens.length || tokens[nameStart] < 0 || !Character.isLetter((char) tokens[nameStart])) {
+            return -1;
+        }
+
+        for (int index = nameStart; index < tokens.length; index++) {
+            if (tokens[index] == '>') return index;
+            if (tokens[index] == '<') return -1;
+        }
+
+        return -1;
+    }
+
+    @NotNull
+    private static Segment.Tag tag(int @NotNull [] tokens, int start, int end, @NotNull List<Segment> segments) {
+        boolean closing = tokens[start + 1] == '/';
+        boolean selfClosing = !closing && tokens[end - 1] == '/';
+        int nameStart = closing ? start + 2 : start + 1;
+        int nameEnd = selfClosing ? end - 1 : end;
+
+        // Like the name, the tag is trimmed.
+        while (nameEnd > nameStart && tokens[nameEnd - 1] >= 0 && Character.isWhitespace((char) tokens[nameEnd - 1])) {
+            nameEnd--;
+        }
+
+        List<Segment> parts = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+
+        for (int index = nameStart; index < nameEnd; index++) {
+            if (tokens[index] < 0) {
+                Segment.Argument argument = (Segment.Argument) segments.get(~tokens[index]);
+                flush(text, parts);
+                parts.add(argument);
+                name.append('{').append(argument.name()).append('}');
+            } else {
+                text.append((char) tokens[index]);
+                name.append((char) tokens[index]);
+            }
+        }
+
+        flush(text, parts);
+
+        Segment.Tag.Kind kind = closing ? Segment.Tag.Kind.CLOSE
+              : selfClosing ? Segment.Tag.Kind.SELF_CLOSING : Segment.Tag.Kind.OPEN;
+        return new Segment.Tag(name.toString(), kind, parts);
+    }
+
+    private static void flush(@NotNull StringBuilder text, @NotNull List<Segment> segments) {
+        if (text.isEmpty()) return;
+
+        segments.add(new Segment.Literal(text.toString()));
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,55 @@
+package wtf.villain.weave.translation.format;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives a formatted translation as a stream of text runs, arguments and markup tags.
+ * <p>Renderers can build their rich text components directly from these calls, without formatting the translation
+ * to a string and parsing its markup again. See {@link Template#markup()}.
+ */
+public interface RichTextHandler {
+
+    /**
+     * Called for a run of text.
+     *
+     * @param text the text
+     */
+    void text(@NotNull String text);
+
+    /**
+     * Called for an argument.
+     * <p>The value is passed as is, so it may be a component of its own. Missing arguments are passed as text
+     * ({@code {name}}) instead.
+     *
+     * @param name  the name of the argument
+     * @param value the value of the argument
+     */
+    void argument(@NotNull String name, @Nullable Object value);
+
+    /**
+     * Called for an opening tag such as {@code <red>}.
+     *
+     * @param tag the content of the tag, see {@link Segment.Tag#name()}
+     */
+    void openTag(@NotNull String tag);
+
+    /**
+     * Called for a closing tag such as {@code </red>}.
+     *
+     * @param tag the content of the tag, see {@link Segment.Tag#name()}
+     */
+    void closeTag(@NotNull String tag);
+
+    /**
+     * Called for a self-closing tag such as {@code <br/>}.
+     * <p>Opens and closes the tag by default.
+     *
+     * @param tag the content of the tag, see {@link Segment.Tag#name()}
+     */
+    default void selfClosingTag(@NotNull String tag) {
+        openTag(tag);
+        closeTag(tag);
+    }
+
+}
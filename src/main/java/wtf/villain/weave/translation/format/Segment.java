@@ -0,0 +1,53 @@
+package wtf.villain.weave.translation.format;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Represents a single part of a compiled {@link Template}.
+ */
+public sealed interface Segment permits Segment.Literal, Segment.Argument, Segment.Tag {
+
+    /**
+     * A run of text that is copied to the output unchanged.
+     *
+     * @param text the text, with any ICU quoting already removed
+     */
+    record Literal(@NotNull String text) implements Segment {
+    }
+
+    /**
+     * A simple {@code {name}} argument without a format type or style.
+     *
+     * @param name    the name of the argument
+     * @param ordinal the index of the argument in {@link Template#argumentNames()}
+     */
+    record Argument(@NotNull String name, int ordinal) implements Segment {
+    }
+
+    /**
+     * A markup tag such as {@code <red>}, {@code </red>} or {@code <br/>}.
+     * <p>Tags are only produced by {@link Template#markup()}.
+     *
+     * @param name  the content of the tag without the angle brackets and slashes, for example {@code red} or
+     *              {@code click:run_command:/msg {player}}, with arguments as they are written in the pattern
+     * @param kind  whether the tag opens, closes or is self-closing
+     * @param parts the content of the tag split into literals and arguments, which are formatted into the tag
+     */
+    record Tag(@NotNull String name, @NotNull Kind kind, @NotNull List<Segment> parts) implements Segment {
+
+        public Tag {
+            parts = List.copyOf(parts);
+        }
+
+        public Tag(@NotNull String name, @NotNull Kind kind) {
+            this(name, kind, List.of(new Literal(name)));
+        }
+
+        public enum Kind {
+            OPEN, CLOSE, SELF_CLOSING
+        }
+    }
+
+}
@@ -0,0 +1,503 @@
+package wtf.villain.weave.translation.format;
+
+import com.ibm.icu.text.MessageFormat;
+import com.ibm.icu.text.MessagePattern;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A translation value that has been parsed once into a sequence of {@link Segment}s.
+ * <p>Templates which only consist of text and simple {@code {name}} arguments can be rendered directly without going
+ * through ICU. Any other template (plural, select, number styles, ...) is reported as not {@link #simple() simple}
+ * and is formatted using ICU's {@link MessageFormat} through {@link #format(Map)}.
+ * <p>Templates are immutable and may be shared between any number of threads.
+ */
+public final class Template {
+
+    private static final int ARGUMENT_LENGTH_HINT = 16;
+
+    // Unicode noncharacters never occur in text, so they mark where ICU placed an argument, see formatRich.
+    private static final char PLACEHOLDER = '\uFDD0';
+    private static final int PLACEHOLDERS = 32;
+
+    private final String pattern;
+    private final List<String> argumentNames;
+    private final Segment @Nullable [] segments;
+    private final int lengthHint;
+
+    // For each argument, whether or not it is only used as a simple {name} argument.
+    private final boolean[] plainArguments;
+
+    // The segments split into text runs and markup tags, computed on first use.
+    private volatile List<Segment> markup;
+
+    // The UTF-8 encoding of each literal segment (null for arguments), computed on first use.
+    private volatile byte[][] encodedLiterals;
+
+    // ICU's MessageFormat is not thread-safe. A single idle instance is kept around and handed to one formatting
+    // thread at a time; concurrent callers create their own instance instead of waiting for it.
+    private final AtomicReference<MessageFormat> idleFormat = new AtomicReference<>();
+
+    private Template(@NotNull String pattern,
+                     @NotNull List<String> argumentNames,
+                     Segment @Nullable [] segments,
+                     boolean @NotNull [] plainArguments) {
+        this.pattern = pattern;
+        this.argumentNames = argumentNames;
+        this.segments = segments;
+        this.plainArguments = plainArguments;
+
+        int lengthHint = 0;
+        if (segments != null) {
+            for (Segment segment : segments) {
+                lengthHint += segment instanceof Segment.Literal literal ? literal.text().length() : ARGUMENT_LENGTH_HINT;
+            }
+        }
+        this.lengthHint = lengthHint;
+    }
+
+    /**
+     * Compiles the given ICU message pattern.
+     *
+     * @param pattern the pattern to compile
+     * @return the compiled template
+     * @throws IllegalArgumentException if the pattern is not a valid ICU message pattern
+     */
+    @NotNull
+    public static Template compile(@NotNull String pattern) {
+        MessagePattern parsed = new MessagePattern(pattern);
+
+        // Argument names are collected from the whole pattern, including nested plural and select messages.
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < parsed.countParts(); i++) {
+            MessagePattern.Part.Type type = parsed.getPartType(i);
+            if (type == MessagePattern.Part.Type.ARG_NAME || type == MessagePattern.Part.Type.ARG_NUMBER) {
+                names.add(parsed.getSubstring(parsed.getPart(i)));
+            }
+        }
+        List<String> argumentNames = List.copyOf(names);
+
+        boolean[] plainArguments = new boolean[argumentNames.size()];
+        Arrays.fill(plainArguments, true);
+
+        for (int i = 0; i < parsed.countParts(); i++) {
+            MessagePattern.Part part = parsed.getPart(i);
+
+            if (part.getType() == MessagePattern.Part.Type.ARG_START && part.getArgType() != MessagePattern.ArgType.NONE) {
+                plainArguments[argumentNames.indexOf(parsed.getSubstring(parsed.getPart(i + 1)))] = false;
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int previous = 0;
+
+        // The first part is always MSG_START, the last one is always MSG_LIMIT.
+        for (int i = 1; i < parsed.countParts(); i++) {
+            MessagePattern.Part part = parsed.getPart(i);
+            literal.append(pattern, previous, part.getIndex());
+
+            switch (part.getType()) {
+                case MSG_LIMIT -> previous = part.getLimit();
+                case SKIP_SYNTAX, INSERT_CHAR -> previous = part.getLimit();
+                case ARG_START -> {
+                    if (part.getArgType() != MessagePattern.ArgType.NONE) {
+                        return new Template(pattern, argumentNames, null, plainArguments);
+                    }
+
+                    if (!literal.isEmpty()) {
+                        segments.add(new Segment.Literal(literal.toString()));
+                        literal.setLength(0);
+                    }
+
+                    String name = parsed.getSubstring(parsed.getPart(i + 1));
+                    segments.add(new Segment.Argument(name, argumentNames.indexOf(name)));
+
+                    i = parsed.getLimitPartIndex(i);
+                    previous = parsed.getPart(i).getLimit();
+                }
+                default -> throw new IllegalStateException("Unexpected part " + part + " in pattern " + pattern);
+            }
+        }
+
+        if (!literal.isEmpty()) {
+            segments.add(new Segment.Literal(literal.toString()));
+        }
+
+        return new Template(pattern, argumentNames, segments.toArray(Segment[]::new), plainArguments);
+    }
+
+    /**
+     * Gets the pattern this template was compiled from.
+     *
+     * @return the pattern
+     */
+    @NotNull
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Gets the names of all arguments used by this template, in the order they first appear in the pattern.
+     *
+     * @return the argument names
+     */
+    @NotNull
+    public List<String> argumentNames() {
+        return argumentNames;
+    }
+
+    /**
+     * Checks whether or not this template can be rendered without ICU.
+     *
+     * @return whether or not this template only consists of text and simple arguments
+     */
+    public boolean simple() {
+        return segments != null;
+    }
+
+    /**
+     * Resolves the argument names of this template to positions in an argument array.
+     * <p>The result should be computed once and reused for every call to {@link #appendTo(Appendable, int[], Object[])}.
+     *
+     * @param keys the argument names, in the order their values will be passed in
+     * @return for each of the {@link #argumentNames()}, the position of its value, or {@code -1} if it is not provided
+     */
+    public int @NotNull [] bind(@NotNull String @NotNull [] keys) {
+        int[] slots = new int[argumentNames.size()];
+
+        for (int ordinal = 0; ordinal < slots.length; ordinal++) {
+            slots[ordinal] = -1;
+
+            for (int position = 0; position < keys.length; position++) {
+                if (keys[position].equals(argumentNames.get(ordinal))) {
+                    slots[ordinal] = position;
+                    break;
+                }
+            }
+        }
+
+        return slots;
+    }
+
+    /**
+     * Checks whether or not the given arguments can be rendered without ICU.
+     * <p>ICU applies locale specific formatting to numbers and dates, so those are left to ICU as well.
+     *
+     * @param slots     the bound argument positions, see {@link #bind(String[])}
+     * @param arguments the argument values
+     * @return whether or not {@link #appendTo(Appendable, int[], Object[])} may be used
+     */
+    public boolean renderable(int @NotNull [] slots, Object @NotNull [] arguments) {
+        if (segments == null) return false;
+
+        for (int slot : slots) {
+            if (slot < 0 || slot >= arguments.length) continue;
+
+            Object argument = arguments[slot];
+            if (argument instanceof Number || argument instanceof Date) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Renders this template into the given output.
+     * <p>This method must only be called if {@link #renderable(int[], Object[])} returns {@code true}. It does not
+     * allocate unless an argument value has to be converted to a string.
+     *
+     * @param out       the output to append to
+     * @param slots     the bound argument positions, see {@link #bind(String[])}
+     * @param arguments the argument values
+     * @throws IOException if the output throws an exception
+     */
+    public void appendTo(@NotNull Appendable out, int @NotNull [] slots, Object @NotNull [] arguments) throws IOException {
+        if (segments == null) throw new IllegalStateException("Template is not simple: " + pattern);
+
+        for (Segment segment : segments) {
+            if (segment instanceof Segment.Literal literal) {
+                out.append(literal.text());
+                continue;
+            }
+
+            if (!(segment instanceof Segment.Argument argument)) continue;
+
+            int slot = slots[argument.ordinal()];
+
+            if (slot < 0 || slot >= arguments.length) {
+                // Same as ICU, missing arguments are left unformatted.
+                out.append('{').append(argument.name()).append('}');
+                continue;
+            }
+
+            Object value = arguments[slot];
+            if (value instanceof CharSequence sequence) {
+                out.append(sequence);
+            } else {
+                out.append(String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * Renders this template as UTF-8 into the given buffer.
+     * <p>This method must only be called if {@link #renderable(int[], Object[])} returns {@code true}. Literal text is
+     * encoded once, on first use, so only the argument values are encoded on every call. It does not allocate unless
+     * an argument value has to be converted to a string.
+     * <p>Writing is all or nothing: if the buffer runs out of space, its position is reset to where it was before the
+     * call, so the buffer never holds a partially rendered template.
+     *
+     * @param out       the buffer to write to
+     * @param slots     the bound argument positions, see {@link #bind(String[])}
+     * @param arguments the argument values
+     * @throws BufferOverflowException if the buffer does not have enough space left
+     */
+    public void writeTo(@NotNull ByteBuffer out, int @NotNull [] slots, Object @NotNull [] arguments) {
+        byte[][] encodedLiterals = encodedLiterals();
+        int start = out.position();
+
+        try {
+            for (int i = 0; i < encodedLiterals.length; i++) {
+                if (encodedLiterals[i] != null) {
+                    out.put(encodedLiterals[i]);
+                    continue;
+                }
+
+                Segment.Argument argument = (Segment.Argument) segments[i];
+                int slot = slots[argument.ordinal()];
+
+                if (slot < 0 || slot >= arguments.length) {
+                    // Same as ICU, missing arguments are left unformatted.
+                    out.put((byte) '{');
+                    Utf8.encode(argument.name(), out);
+                    out.put((byte) '}');
+                    continue;
+                }
+
+                Object value = arguments[slot];
+                Utf8.encode(value instanceof CharSequence sequence ? sequence : String.valueOf(value), out);
+            }
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Renders this template as UTF-8 into the given stream, see {@link #writeTo(ByteBuffer, int[], Object[])}.
+     * <p>Argument values are encoded a byte at a time, so the stream should be buffered. Unlike the buffer, a stream
+     * cannot be rewound, so it may hold a partially rendered template if it throws an exception.
+     *
+     * @param out       the stream to write to
+     * @param slots     the bound argument positions, see {@link #bind(String[])}
+     * @param arguments the argument values
+     * @throws IOException if the stream throws an exception
+     */
+    public void writeTo(@NotNull OutputStream out, int @NotNull [] slots, Object @NotNull [] arguments) throws IOException {
+        byte[][] encodedLiterals = encodedLiterals();
+
+        for (int i = 0; i < encodedLiterals.length; i++) {
+            if (encodedLiterals[i] != null) {
+                out.write(encodedLiterals[i]);
+                continue;
+            }
+
+            Segment.Argument argument = (Segment.Argument) segments[i];
+            int slot = slots[argument.ordinal()];
+
+            if (slot < 0 || slot >= arguments.length) {
+                out.write('{');
+                Utf8.encode(argument.name(), out);
+                out.write('}');
+                continue;
+            }
+
+            Object value = arguments[slot];
+            Utf8.encode(value instanceof CharSequence sequence ? sequence : String.valueOf(value), out);
+        }
+    }
+
+    @NotNull
+    private byte[][] encodedLiterals() {
+        if (segments == null) throw new IllegalStateException("Template is not simple: " + pattern);
+
+        byte[][] encodedLiterals = this.encodedLiterals;
+
+        if (encodedLiterals == null) {
+            encodedLiterals = new byte[segments.length][];
+
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i] instanceof Segment.Literal literal) {
+                    encodedLiterals[i] = literal.text().getBytes(StandardCharsets.UTF_8);
+                }
+            }
+
+            // Encoding is side effect free, so two threads racing here at worst encode the literals twice.
+            this.encodedLiterals = encodedLiterals;
+        }
+
+        return encodedLiterals;
+    }
+
+    /**
+     * Gets the segments of this template split into text runs, arguments and markup tags.
+     * <p>The markup is parsed once, on first use, before any argument is bound, so tags may contain arguments and
+     * argument values are never parsed as markup. See {@link RichTextHandler}.
+     *
+     * @return the segments, or {@code null} if this template is not {@link #simple() simple}
+     */
+    @Nullable
+    public List<Segment> markup() {
+        if (segments == null) return null;
+
+        List<Segment> markup = this.markup;
+
+        if (markup == null) {
+            // Splitting is side effect free, so two threads racing here at worst split the segments twice.
+            markup = List.copyOf(Markup.split(List.of(segments)));
+            this.markup = markup;
+        }
+
+        return markup;
+    }
+
+    /**
+     * Renders this template into the given handler.
+     * <p>Simple arguments are passed to the handler as they are, without converting them to strings, and are never
+     * parsed as markup. Templates that are not {@link #simple() simple} are formatted by ICU first, with simple
+     * arguments standing in for their values, so the markup of the result can be parsed without parsing the values.
+     * Arguments that are also used in a plural, select or formatted argument are formatted by ICU and are part of the
+     * parsed text.
+     *
+     * @param handler   the handler to render into
+     * @param slots     the bound argument positions, see {@link #bind(String[])}
+     * @param arguments the argument values
+     */
+    public void appendTo(@NotNull RichTextHandler handler, int @NotNull [] slots, Object @NotNull [] arguments) {
+        List<Segment> markup = segments == null ? Markup.split(formatPlaceholders(slots, arguments)) : markup();
+
+        for (Segment segment : markup) {
+            if (segment instanceof Segment.Literal literal) {
+                handler.text(literal.text());
+            } else if (segment instanceof Segment.Argument argument) {
+                int slot = slots[argument.ordinal()];
+
+                if (slot < 0 || slot >= arguments.length) {
+                    // Same as ICU, missing arguments are left unformatted.
+                    handler.text("{" + argument.name() + "}");
+                } else {
+                    handler.argument(argument.name(), arguments[slot]);
+                }
+            } else if (segment instanceof Segment.Tag tag) {
+                String name = tagName(tag, slots, arguments);
+
+                switch (tag.kind()) {
+                    case OPEN -> handler.openTag(name);
+                    case CLOSE -> handler.closeTag(name);
+                    case SELF_CLOSING -> handler.selfClosingTag(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats this template using ICU with a placeholder in place of every simple argument.
+     *
+     * @return the formatted text split into literals and arguments
+     */
+    @NotNull
+    private List<Segment> formatPlaceholders(int @NotNull [] slots, Object @NotNull [] arguments) {
+        Map<String, Object> formats = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < slots.length; ordinal++) {
+            int slot = slots[ordinal];
+            if (slot < 0 || slot >= arguments.length) continue;
+
+            boolean placeholder = plainArguments[ordinal] && ordinal < PLACEHOLDERS;
+            formats.put(argumentNames.get(ordinal), placeholder ? String.valueOf((char) (PLACEHOLDER + ordinal)) : arguments[slot]);
+        }
+
+        String formatted = format(formats);
+        List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+
+        for (int i = 0; i < formatted.length(); i++) {
+            int ordinal = formatted.charAt(i) - PLACEHOLDER;
+            if (ordinal < 0 || ordinal >= Math.min(PLACEHOLDERS, argumentNames.size()) || !plainArguments[ordinal]) continue;
+
+            if (literalStart < i) segments.add(new Segment.Literal(formatted.substring(literalStart, i)));
+            segments.add(new Segment.Argument(argumentNames.get(ordinal), ordinal));
+            literalStart = i + 1;
+        }
+
+        if (literalStart < formatted.length()) segments.add(new Segment.Literal(formatted.substring(literalStart)));
+        return segments;
+    }
+
+    @NotNull
+    private static String tagName(@NotNull Segment.Tag tag, int @NotNull [] slots, Object @NotNull [] arguments) {
+        if (tag.parts().size() == 1 && tag.parts().get(0) instanceof Segment.Literal) return tag.name();
+
+        StringBuilder name = new StringBuilder();
+
+        for (Segment part : tag.parts()) {
+            if (part instanceof Segment.Literal literal) {
+                name.append(literal.text());
+            } else if (part instanceof Segment.Argument argument) {
+                int slot = slots[argument.ordinal()];
+                name.append(slot < 0 || slot >= arguments.length ? "{" + argument.name() + "}" : String.valueOf(arguments[slot]));
+            }
+        }
+
+        return name.toString();
+    }
+
+    /**
+     * Formats this template using ICU.
+     * <p>This works for any template, but {@link #appendTo(Appendable, int[], Object[])} should be preferred for
+     * simple ones.
+     *
+     * @param arguments the argument values, keyed by their name
+     * @return the formatted text
+     */
+    @NotNull
+    public String format(@NotNull Map<String, Object> arguments) {
+        MessageFormat format = idleFormat.getAndSet(null);
+        if (format == null) format = new MessageFormat(pattern);
+
+        try {
+            return format.format(arguments);
+        } finally {
+            idleFormat.set(format);
+        }
+    }
+
+    /**
+     * Gets an estimate of the length of the rendered output.
+     *
+     * @return the estimated length
+     */
+    public int lengthHint() {
+        return lengthHint;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Template[pattern=%s, arguments=%s, simple=%b]", pattern, argumentNames, simple());
+    }
+}
@@ -0,0 +1,29 @@
+package wtf.villain.weave.translation.process;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A post-processor that modifies the formatted text in place.
+ * <p>Consecutive buffer post-processors share a single {@link StringBuilder}, so no intermediate string is created
+ * between them. A processor that reports that it did not change anything costs nothing further.
+ */
+@FunctionalInterface
+public interface BufferPostProcessor extends PostProcessor {
+
+    /**
+     * Processes the given buffer in place.
+     * <p>The buffer holds the current text. {@link Text#text()} may be out of date and must not be used.
+     *
+     * @param text   the translation and formats being processed
+     * @param buffer the buffer holding the current text
+     * @return whether or not the buffer has been changed
+     */
+    boolean process(@NotNull Text text, @NotNull StringBuilder buffer);
+
+    @Override
+    default String apply(Text text) {
+        StringBuilder buffer = new StringBuilder(text.text());
+        return process(text, buffer) ? buffer.toString() : text.text();
+    }
+
+}
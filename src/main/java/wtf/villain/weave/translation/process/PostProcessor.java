@@ -3,6 +3,7 @@ package wtf.villain.weave.translation.process;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @FunctionalInterface
 public interface PostProcessor extends Function<Text, String> {
@@ -17,4 +18,40 @@ public interface PostProcessor extends Function<Text, String> {
         return Text::text;
     }
 
+    /**
+     * Returns a static post-processor, which only depends on the text of the translation and not on the formatted
+     * arguments, for example one that translates colour codes.
+     * <p>Static post-processors are applied once to the translation before it is compiled instead of every time it
+     * is formatted, so they must keep the message syntax (such as {@code {name}} arguments) intact. This only holds for
+     * static post-processors added before the first dynamic one: a static post-processor added after a dynamic one
+     * runs on every format, so post-processors always run in the order they were added in.
+     *
+     * @param function the function to apply to the translation
+     * @return the post-processor
+     */
+    @NotNull
+    static PostProcessor ofStatic(@NotNull UnaryOperator<String> function) {
+        return new PostProcessor() {
+            @Override
+            public String apply(Text text) {
+                return function.apply(text.text());
+            }
+
+            @Override
+            public boolean isStatic() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Checks whether or not this post-processor only depends on the text of the translation, see
+     * {@link #ofStatic(UnaryOperator)}.
+     *
+     * @return whether or not this post-processor is static
+     */
+    default boolean isStatic() {
+        return false;
+    }
+
 }
@@ -0,0 +1,34 @@
+package wtf.villain.weave.translation.process;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Processes the value of a translation before its template is compiled.
+ * <p>Pre-processors are applied once per translation, the first time it is used, so they may only depend on the
+ * value of the translation, for example to convert legacy {@code &} colour codes or to trim whitespace. They must keep the
+ * message syntax (such as {@code {name}} arguments) intact. Unchanged translations keep their processed value across
+ * refreshes.
+ */
+@FunctionalInterface
+public interface PreProcessor {
+
+    /**
+     * Returns a pre-processor that returns its input unchanged.
+     *
+     * @return a pre-processor that returns its input unchanged
+     */
+    @NotNull
+    static PreProcessor identity() {
+        return value -> value;
+    }
+
+    /**
+     * Processes the given value.
+     *
+     * @param value the value of the translation
+     * @return the processed value, or the given value if nothing has changed
+     */
+    @NotNull
+    String process(@NotNull String value);
+
+}
@@ -0,0 +1,98 @@
+package wtf.villain.weave.translation.process;
+
+import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.translation.Arguments;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.Arrays;
+
+/**
+ * A compiled chain of pre- and post-processors.
+ * <p>The chain is split once into static processors (every pre-processor and the static post-processors before the
+ * first dynamic one), which are applied to each translation before it is compiled, and dynamic processors, which are
+ * applied to every formatted text in the order they were added. A static post-processor that follows a dynamic one is
+ * applied to every formatted text as well, so the order is kept. Processors that return their input unchanged are
+ * skipped without copying it, and consecutive {@link BufferPostProcessor}s share a single buffer.
+ */
+final class ProcessorPipeline implements WeaveProcessor {
+
+    private final PreProcessor[] preProcessors;
+    private final PostProcessor[] staticProcessors;
+    private final PostProcessor[] dynamicProcessors;
+
+    ProcessorPipeline(@NotNull PreProcessor @NotNull [] preProcessors, @NotNull PostProcessor @NotNull [] postProcessors) {
+        int leadingStatic = 0;
+        while (leadingStatic < postProcessors.length && postProcessors[leadingStatic].isStatic()) leadingStatic++;
+
+        this.preProcessors = preProcessors;
+        this.staticProcessors = Arrays.copyOfRange(postProcessors, 0, leadingStatic);
+        this.dynamicProcessors = Arrays.copyOfRange(postProcessors, leadingStatic, postProcessors.length);
+    }
+
+    @Override
+    public boolean dynamic() {
+        return dynamicProcessors.length > 0;
+    }
+
+    @NotNull
+    @Override
+    public String processTemplate(@NotNull Translation translation, @NotNull String value) {
+        for (PreProcessor processor : preProcessors) {
+            value = processor.process(value);
+        }
+
+        if (staticProcessors.length == 0) return value;
+
+        Text pending = new Text(translation, Arguments.NONE, value);
+
+        for (PostProcessor processor : staticProcessors) {
+            String processed = processor.apply(pending);
+            if (processed != pending.text()) pending.text(processed);
+        }
+
+        return pending.text();
+    }
+
+    @NotNull
+    @Override
+    public String apply(@NotNull Translation translation, @NotNull String text, @NotNull Arguments arguments) {
+        if (dynamicProcessors.length == 0) return text;
+
+        Text pending = new Text(translation, arguments, text);
+
+        // The buffer is only created once a buffer processor runs. It is in sync with the text of the pending text
+        // unless a buffer processor has changed it since.
+        StringBuilder buffer = null;
+        boolean buffered = false;
+        boolean changed = false;
+
+        for (PostProcessor processor : dynamicProcessors) {
+            if (processor instanceof BufferPostProcessor bufferProcessor) {
+                if (buffer == null) {
+                    buffer = new StringBuilder(pending.text().length() + 16).append(pending.text());
+                } else if (!buffered) {
+                    buffer.setLength(0);
+                    buffer.append(pending.text());
+                }
+
+                buffered = true;
+                changed |= bufferProcessor.process(pending, buffer);
+                continue;
+            }
+
+            if (changed) {
+                pending.text(buffer.toString());
+                changed = false;
+            }
+
+            String processed = processor.apply(pending);
+
+            if (processed != pending.text()) {
+                pending.text(processed);
+                buffered = false;
+            }
+        }
+
+        return changed ? buffer.toString() : pending.text();
+    }
+}
@@ -4,13 +4,38 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.translation.Arguments;
 import wtf.villain.weave.translation.Translation;
 
+/**
+ * The text a post-processor is applied to.
+ * <p>{@link #arguments()} is a view of the keys the translation has been prepared with and the values it is being
+ * formatted with, so post-processors can look arguments up by name or index without formatting again. Static
+ * post-processors receive {@link Arguments#NONE}. The view is only valid while the post-processor runs, see
+ * {@link Arguments#copy()}.
+ */
 @Getter
 @Setter
 @AllArgsConstructor
 public final class Text {
     private final @NotNull Translation translation;
-    private final Object @NotNull [] formats;
+    private final @NotNull Arguments arguments;
     private @NotNull String text;
+
+    /**
+     * Gets the values the translation is being formatted with.
+     *
+     * @return a copy of the argument values, in the order of the prepared keys
+     * @deprecated use {@link #arguments()}, which offers lookup by name and does not copy the values
+     */
+    @Deprecated
+    public Object @NotNull [] formats() {
+        Object[] formats = new Object[arguments.size()];
+
+        for (int i = 0; i < formats.length; i++) {
+            formats[i] = arguments.value(i);
+        }
+
+        return formats;
+    }
 }
@@ -1,29 +1,115 @@
 package wtf.villain.weave.translation.process;
 
 import org.jetbrains.annotations.NotNull;
+import wtf.villain.weave.translation.Arguments;
 import wtf.villain.weave.translation.Translation;
 
+import java.util.List;
+
 @FunctionalInterface
 public interface WeaveProcessor {
 
+    /**
+     * A processor that returns its input unchanged.
+     * <p>Formatting can skip creating intermediate strings when a translation uses this processor.
+     */
+    WeaveProcessor NONE = new WeaveProcessor() {
+        @NotNull
+        @Override
+        public String apply(@NotNull Translation translation, @NotNull String text, @NotNull Arguments arguments) {
+            return text;
+        }
+
+        @Override
+        public boolean dynamic() {
+            return false;
+        }
+    };
+
+    /**
+     * Compiles the given post-processors into a single processor.
+     * <p>The returned processor should be created once and shared by every translation, see
+     * {@link PostProcessor#ofStatic(java.util.function.UnaryOperator)} and {@link BufferPostProcessor}.
+     *
+     * @param postProcessors the post-processors, in the order they should be applied
+     * @return the compiled processor
+     */
     @NotNull
     static WeaveProcessor of(@NotNull PostProcessor... postProcessors) {
         if (postProcessors.length == 0) {
-            return (translation, text, values) -> text;
+            return NONE;
+        }
+
+        return new ProcessorPipeline(new PreProcessor[0], postProcessors.clone());
+    }
+
+    /**
+     * Compiles the given pre- and post-processors into a single processor, see {@link #of(PostProcessor...)}.
+     * <p>Pre-processors are applied before every post-processor. Post-processors are applied in the given order.
+     *
+     * @param preProcessors  the pre-processors, in the order they should be applied
+     * @param postProcessors the post-processors, in the order they should be applied
+     * @return the compiled processor
+     */
+    @NotNull
+    static WeaveProcessor of(@NotNull List<PreProcessor> preProcessors, @NotNull List<PostProcessor> postProcessors) {
+        if (preProcessors.isEmpty() && postProcessors.isEmpty()) {
+            return NONE;
         }
 
-        return (translation, text, values) -> {
-            Text pending = new Text(translation, values, text);
+        return new ProcessorPipeline(preProcessors.toArray(PreProcessor[]::new), postProcessors.toArray(PostProcessor[]::new));
+    }
 
-            for (PostProcessor postProcessor : postProcessors) {
-                pending.text(postProcessor.apply(pending));
-            }
+    /**
+     * Applies this processor to the given formatted text.
+     *
+     * @param translation the translation that has been formatted
+     * @param text        the formatted text
+     * @param arguments   the arguments the translation has been formatted with
+     * @return the processed text
+     */
+    @NotNull
+    String apply(@NotNull Translation translation, @NotNull String text, @NotNull Arguments arguments);
 
-            return pending.text();
-        };
+    /**
+     * Applies this processor to the given formatted text.
+     * <p>The values are named after the arguments of the translation in the order they first appear, the same as
+     * {@link Translation#prepareInOrder()}.
+     *
+     * @param translation the translation that has been formatted
+     * @param text        the formatted text
+     * @param values      the values the translation has been formatted with
+     * @return the processed text
+     * @deprecated use {@link #apply(Translation, String, Arguments)}, which passes the argument names as well
+     */
+    @NotNull
+    @Deprecated
+    default String apply(@NotNull Translation translation, @NotNull String text, @NotNull Object... values) {
+        return apply(translation, text, Arguments.of(translation.template().argumentNames(), values));
     }
 
+    /**
+     * Applies the static part of this processor to the value of the given translation.
+     * <p>This is called once per translation, the first time its pattern is needed and before its template is
+     * compiled, never from the constructor of the translation.
+     *
+     * @param translation the translation
+     * @param value       the value of the translation
+     * @return the processed value
+     */
     @NotNull
-    String apply(@NotNull Translation translation, @NotNull String text, @NotNull Object... values);
+    default String processTemplate(@NotNull Translation translation, @NotNull String value) {
+        return value;
+    }
+
+    /**
+     * Checks whether or not {@link #apply(Translation, String, Arguments)} may change the formatted text.
+     * <p>Formatting can skip creating intermediate strings when it does not.
+     *
+     * @return whether or not this processor processes formatted text
+     */
+    default boolean dynamic() {
+        return true;
+    }
 
 }
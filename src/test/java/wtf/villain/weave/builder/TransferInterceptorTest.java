@@ -0,0 +1,143 @@
+package wtf.villain.weave.builder;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import okio.GzipSink;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wtf.villain.weave.client.Transfer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransferInterceptorTest {
+
+    private final List<Transfer> transfers = new CopyOnWriteArrayList<>();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder().addInterceptor(new TransferInterceptor(transfers::add)).build();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static Buffer gzip(String text) throws IOException {
+        Buffer buffer = new Buffer();
+        try (var sink = Okio.buffer(new GzipSink(buffer))) {
+            sink.writeUtf8(text);
+        }
+        return buffer;
+    }
+
+    private Response get(String path) throws IOException {
+        return client.newCall(new Request.Builder().url(server.url(path)).build()).execute();
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        String body = "{\"en\": {\"greeting\": \"" + "Hello ".repeat(100) + "\"}}";
+        Buffer compressed = gzip(body);
+        long compressedSize = compressed.size();
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(compressed));
+
+        try (Response response = get("/v2/projects/1/translations/en")) {
+            assertEquals(body, response.body().string());
+            assertNull(response.header("Content-Encoding"));
+        }
+
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+        assertEquals(List.of(new Transfer(1, "en", 200, "gzip", compressedSize, body.length())), transfers);
+        assertTrue(transfers.get(0).compressed());
+    }
+
+    @Test
+    public void testIdentity() throws Exception {
+        server.enqueue(new MockResponse().setBody("[\"en\"]"));
+
+        try (Response response = get("/v2/projects/1/languages")) {
+            assertEquals("[\"en\"]", response.body().string());
+        }
+
+        assertEquals(List.of(new Transfer(1, "languages", 200, null, 6, 6)), transfers);
+        assertFalse(transfers.get(0).compressed());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        try (Response response = get("/v2/projects/2/translations/de")) {
+            assertEquals(304, response.code());
+        }
+
+        assertEquals(List.of(new Transfer(2, "de", 304, null, 0, 0)), transfers);
+    }
+
+    @Test
+    public void testNotModifiedWithEncoding() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("Content-Encoding", "gzip"));
+
+        try (Response response = get("/v2/projects/2/translations/de")) {
+            assertEquals(304, response.code());
+            assertEquals("", response.body().string());
+        }
+
+        assertEquals(List.of(new Transfer(2, "de", 304, "gzip", 0, 0)), transfers);
+    }
+
+    @Test
+    public void testEarlyClose() throws Exception {
+        String body = "x".repeat(64 * 1024);
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzip(body)));
+
+        try (Response response = get("/v2/projects/1/translations/en")) {
+            response.body().source().require(10);
+        }
+
+        assertEquals(1, transfers.size());
+        Transfer transfer = transfers.get(0);
+        assertTrue(transfer.decompressedBytes() >= 10 && transfer.decompressedBytes() < body.length());
+        assertEquals("gzip", transfer.contentEncoding());
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        String english = "\"en\": {\"greeting\": \"Hello, {name}\"}";
+        String german = "\"de\": {\"greeting\": \"Hallo, {name}\", \"nested\": {\"a\": \"}\\\"\"}}";
+        String body = "{" + english + ", " + german + ", \"fr\": null}";
+        Buffer compressed = gzip(body);
+        long compressedSize = compressed.size();
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(compressed));
+
+        try (Response response = get("/v2/projects/1/translations/en,de,fr")) {
+            assertEquals(body, response.body().string());
+        }
+
+        assertEquals(List.of("en", "de", "fr"), transfers.stream().map(Transfer::resource).toList());
+        // The opening brace and the separator after each language are counted towards it.
+        assertEquals(1 + english.length() + 2, transfers.get(0).decompressedBytes());
+        assertEquals(german.length() + 2, transfers.get(1).decompressedBytes());
+        assertEquals("\"fr\": null}".length(), transfers.get(2).decompressedBytes());
+        assertEquals(compressedSize, transfers.stream().mapToLong(Transfer::compressedBytes).sum());
+    }
+}
@@ -0,0 +1,45 @@
+package wtf.villain.weave.builder;
+
+import org.junit.jupiter.api.Test;
+import wtf.villain.weave.Weave;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WeaveInstanceBuilderTest {
+
+    private static WeaveInstanceBuilder builder() {
+        return Weave.builder()
+              .apiKey("tgpak_test")
+              .endpoint("http://localhost/")
+              .addProjects(1);
+    }
+
+    @Test
+    public void testUnsignedWebhookRequiresLoopback() {
+        WeaveInstanceBuilder builder = builder().webhook(new InetSocketAddress(8085), "/tolgee");
+        assertThrows(IllegalArgumentException.class, builder::buildAsync);
+    }
+
+    @Test
+    public void testWebhookBindFailure() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            WeaveInstanceBuilder builder = builder().webhook(socket.getLocalPort()).fetchExecutor(executor);
+            assertThrows(UncheckedIOException.class, builder::buildAsync);
+            // Executors that were passed in belong to the application and are left running.
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
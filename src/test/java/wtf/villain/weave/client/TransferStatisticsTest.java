@@ -0,0 +1,26 @@
+package wtf.villain.weave.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransferStatisticsTest {
+
+    @Test
+    public void testTotals() {
+        TransferStatistics statistics = new TransferStatistics();
+        statistics.onTransfer(new Transfer(1, "languages", 200, "gzip", 100, 400));
+        statistics.onTransfer(new Transfer(1, "en", 200, "gzip", 1_000, 10_000));
+        statistics.onTransfer(new Transfer(1, "en", 304, null, 0, 0));
+        statistics.onTransfer(new Transfer(2, "de", 200, null, 500, 500));
+
+        assertEquals(new TransferStatistics.Totals(2, 1_000, 10_000), statistics.totals(1).get("en"));
+        assertEquals(List.of("en", "languages"), List.copyOf(statistics.totals(1).keySet()));
+        assertEquals(new TransferStatistics.Totals(3, 1_100, 10_400), statistics.total(1));
+        assertEquals(new TransferStatistics.Totals(4, 1_600, 10_900), statistics.total());
+        assertEquals(10.0, statistics.totals(1).get("en").compressionRatio());
+        assertEquals(TransferStatistics.Totals.NONE, statistics.total(3));
+    }
+}
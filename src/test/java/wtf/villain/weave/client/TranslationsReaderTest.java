@@ -0,0 +1,49 @@
+package wtf.villain.weave.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TranslationsReaderTest {
+
+    private static Map<String, String> read(String json) throws IOException {
+        Map<String, String> translations = new HashMap<>();
+        TranslationsReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+              (language, key, value) -> translations.put(language + ":" + key, value));
+        return translations;
+    }
+
+    @Test
+    public void testFlat() throws IOException {
+        Map<String, String> translations = read("""
+              {"en": {"hello": "Hello {name}!", "missing": null}, "de": {"hello": "Hallo {name}!"}}""");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("en:hello", "Hello {name}!");
+        expected.put("en:missing", null);
+        expected.put("de:hello", "Hallo {name}!");
+        assertEquals(expected, translations);
+    }
+
+    @Test
+    public void testNested() throws IOException {
+        Map<String, String> translations = read("""
+              {"en": {"menu": {"title": "Menu", "items": {"play": "Play"}}, "exit": "Exit"}}""");
+
+        assertEquals(Map.of("en:menu.title", "Menu", "en:menu.items.play", "Play", "en:exit", "Exit"), translations);
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(IOException.class, () -> read("[\"en\"]"));
+        assertThrows(IOException.class, () -> read("{\"en\": {\"hello\": [\"Hello\"]}}"));
+    }
+
+}
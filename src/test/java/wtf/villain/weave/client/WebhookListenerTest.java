@@ -0,0 +1,101 @@
+package wtf.villain.weave.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WebhookListenerTest {
+
+    private static final String SECRET = "s3cr3t";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<Integer> refreshed = new CopyOnWriteArrayList<>();
+    private final List<Throwable> failures = new CopyOnWriteArrayList<>();
+    private WebhookListener listener;
+
+    @BeforeEach
+    public void start() throws IOException {
+        listener = new WebhookListener(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), "/tolgee", SECRET,
+              Set.of(1, 2), projectId -> {
+            refreshed.add(projectId);
+            return projectId == 1
+                  ? CompletableFuture.failedFuture(new IllegalStateException("Tolgee is down"))
+                  : CompletableFuture.completedFuture(null);
+        }, failures::add);
+        listener.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        listener.close();
+    }
+
+    private int post(String payload, String signature) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + listener.address().getPort() + "/tolgee"))
+              .POST(HttpRequest.BodyPublishers.ofString(payload));
+        if (signature != null) request.header("Tolgee-Signature", signature);
+        return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String signature(String payload, long timestamp) {
+        String signature = WebhookListener.sign(SECRET.getBytes(StandardCharsets.UTF_8), timestamp, payload.getBytes(StandardCharsets.UTF_8));
+        return "{\"timestamp\":" + timestamp + ",\"signature\":\"" + signature + "\"}";
+    }
+
+    @Test
+    public void testRefresh() throws IOException, InterruptedException {
+        String payload = "{\"webhookConfigId\":7,\"eventType\":\"PROJECT_ACTIVITY\",\"activityData\":{\"projectId\":2,\"type\":\"SET_TRANSLATIONS\"}}";
+        assertEquals(200, post(payload, signature(payload, System.currentTimeMillis())));
+
+        String unknown = "{\"activityData\":{\"projectId\":3}}";
+        assertEquals(202, post(unknown, signature(unknown, System.currentTimeMillis())));
+
+        assertEquals(List.of(2), refreshed);
+        assertEquals(List.of(), failures);
+    }
+
+    @Test
+    public void testRefreshFailureIsReported() throws IOException, InterruptedException {
+        String payload = "{\"activityData\":{\"projectId\":1}}";
+        assertEquals(200, post(payload, signature(payload, System.currentTimeMillis())));
+
+        // The refresh is triggered after the response has been sent.
+        for (int i = 0; i < 100 && failures.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, failures.size());
+        assertEquals("Tolgee is down", failures.get(0).getMessage());
+    }
+
+    @Test
+    public void testRejected() throws IOException, InterruptedException {
+        String payload = "{\"activityData\":{\"projectId\":1}}";
+
+        assertEquals(401, post(payload, null));
+        assertEquals(401, post(payload, signature("{\"activityData\":{\"projectId\":2}}", System.currentTimeMillis())));
+        assertEquals(401, post(payload, signature(payload, System.currentTimeMillis() - 3_600_000)));
+        assertEquals(400, post("not json", signature("not json", System.currentTimeMillis())));
+
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://localhost:" + listener.address().getPort() + "/tolgee")).GET().build();
+        assertEquals(405, http.send(get, HttpResponse.BodyHandlers.discarding()).statusCode());
+
+        assertEquals(List.of(), refreshed);
+    }
+
+}
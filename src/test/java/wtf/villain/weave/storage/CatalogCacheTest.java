@@ -0,0 +1,117 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import wtf.villain.weave.client.TranslationsResponse;
+import wtf.villain.weave.translation.Translation;
+import wtf.villain.weave.translation.process.WeaveProcessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CatalogCacheTest {
+
+    @Test
+    public void testRoundTrip(@TempDir Path directory) throws IOException {
+        CatalogCache cache = new CatalogCache(directory);
+        cache.save(new Project(
+              1,
+              Map.of("en", Language.ENGLISH, "de", Language.GERMAN),
+              Map.of("en", Map.of("hello", new Translation("Hello {name}!")), "de", Map.of()),
+              Map.of("en", new TranslationsResponse.Validators("\"abc\"", null)),
+              3));
+
+        Project project = cache.load(1, WeaveProcessor.NONE);
+        assertNotNull(project);
+        assertEquals(3, project.version());
+        assertEquals(Map.of("en", Language.ENGLISH, "de", Language.GERMAN), project.supportedLanguages());
+        assertEquals("Hello John!", project.translation(Language.ENGLISH, "hello").format(Map.of("name", "John")));
+        assertEquals(Map.of(), project.translations(Language.GERMAN));
+        assertEquals(new TranslationsResponse.Validators("\"abc\"", null), project.validators().get("en"));
+    }
+
+    @Test
+    public void testMissing(@TempDir Path directory) throws IOException {
+        assertNull(new CatalogCache(directory).load(1, WeaveProcessor.NONE));
+    }
+
+    @Test
+    public void testLazyLookup(@TempDir Path directory) throws IOException {
+        Map<String, Translation> translations = Map.of(
+              "menu.play", new Translation("Play"),
+              "menu.exit", new Translation("Exit"),
+              "grüße", new Translation("Grüße 👋"));
+
+        CatalogCache cache = new CatalogCache(directory);
+        cache.save(new Project(1, Map.of("en", Language.ENGLISH), Map.of("en", translations), Map.of(), 1));
+
+        Project project = cache.load(1, WeaveProcessor.NONE);
+        assertNotNull(project);
+
+        Map<String, Translation> loaded = project.translations(Language.ENGLISH);
+        assertEquals(3, loaded.size());
+        assertEquals("Grüße 👋", loaded.get("grüße").value());
+        assertSame(loaded.get("menu.play"), loaded.get("menu.play"));
+        assertNull(loaded.get("menu.missing"));
+        assertEquals(translations.keySet(), loaded.keySet());
+    }
+
+    @Test
+    public void testDamagedBody(@TempDir Path directory) throws IOException {
+        CatalogCache cache = new CatalogCache(directory);
+        cache.save(new Project(1, Map.of("en", Language.ENGLISH), Map.of("en", Map.of(
+              "menu.play", new Translation("Play"),
+              "menu.exit", new Translation("Exit"))), Map.of(), 1));
+
+        Path file = directory.resolve("project-1.weave");
+        byte[] bytes = Files.readAllBytes(file);
+
+        // The header is intact, but the last translation is cut off.
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+        assertThrows(IOException.class, () -> cache.load(1, WeaveProcessor.NONE));
+
+        // A key entry runs past the key table. Counted from the end, the file holds two values of 4 + 4 bytes, two
+        // keys of 9 bytes, the key table length, one value index and two key entries of two ints each.
+        byte[] damaged = bytes.clone();
+        int keyEntries = bytes.length - 2 * 8 - 2 * 9 - Integer.BYTES - 2 * Integer.BYTES - 2 * 2 * Integer.BYTES;
+        ByteBuffer.wrap(damaged).putInt(keyEntries + Integer.BYTES, 1_000);
+        Files.write(file, damaged);
+        assertThrows(IOException.class, () -> cache.load(1, WeaveProcessor.NONE));
+    }
+
+    @Test
+    public void testMappedFallbacks(@TempDir Path directory) throws IOException {
+        CatalogCache cache = new CatalogCache(directory);
+        cache.save(new Project(1, Map.of("en", Language.ENGLISH, "de", Language.GERMAN), Map.of(
+              "en", Map.of("hello", new Translation("Hello!"), "yes", new Translation("Yes")),
+              "de", Map.of("hello", new Translation("Hallo!"))), Map.of(), 1));
+
+        Project loaded = cache.load(1, WeaveProcessor.NONE);
+        assertNotNull(loaded);
+
+        LanguageTable table = LanguageTable.resolve(loaded.translations(), new FallbackChains(Map.of(), List.of("en")));
+        Map<String, Translation> german = table.get(Language.GERMAN);
+
+        // The catalog is not merged onto the heap, the chain is walked on lookup instead.
+        assertInstanceOf(FallbackTranslations.class, german);
+        assertEquals("Hallo!", german.get("hello").value());
+        assertEquals("Yes", german.get("yes").value());
+        assertNull(german.get("missing"));
+        assertEquals(Map.of("hello", "Hallo!", "yes", "Yes"), german.entrySet().stream()
+              .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().value())));
+        assertEquals(2, german.size());
+    }
+}
@@ -0,0 +1,34 @@
+package wtf.villain.weave.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LanguageTest {
+
+    @Test
+    public void testOrdinals() {
+        assertEquals(Language.ENGLISH.ordinal(), new Language.Impl("English", "en").ordinal());
+        assertEquals(Language.ENGLISH.ordinal(), Language.create("English", "en").ordinal());
+        assertThrows(IllegalArgumentException.class, () -> new Language.Impl("English", "en", Language.GERMAN.ordinal()));
+
+        Language custom = new Language() {
+            @NotNull
+            @Override
+            public String name() {
+                return "Klingon";
+            }
+
+            @NotNull
+            @Override
+            public String tag() {
+                return "tlh";
+            }
+        };
+
+        assertEquals(Language.ordinalOf("tlh"), custom.ordinal());
+        assertEquals(custom.ordinal(), Language.findOrCreate("tlh", "Klingon").ordinal());
+    }
+}
@@ -0,0 +1,52 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RefreshSchedulerTest {
+
+    @Test
+    public void testDelay() {
+        RefreshScheduler scheduler = new RefreshScheduler(() -> CompletableFuture.completedFuture(null),
+              Duration.ofSeconds(10), 0.1, Duration.ofSeconds(60));
+
+        assertEquals(10_000, scheduler.delayMillis(0, 0.5));
+        assertEquals(9_000, scheduler.delayMillis(0, 0));
+        assertEquals(11_000, scheduler.delayMillis(0, 0.99995));
+
+        // Doubled for every failure, up to the maximum backoff.
+        assertEquals(20_000, scheduler.delayMillis(1, 0.5));
+        assertEquals(40_000, scheduler.delayMillis(2, 0.5));
+        assertEquals(60_000, scheduler.delayMillis(3, 0.5));
+        assertEquals(60_000, scheduler.delayMillis(100, 0.5));
+        scheduler.close();
+    }
+
+    @Test
+    public void testRefresh() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+
+        RefreshScheduler scheduler = new RefreshScheduler(() -> {
+            latch.countDown();
+            // Fail once, so the scheduler has to recover from a failure.
+            return calls.incrementAndGet() == 1
+                  ? CompletableFuture.failedFuture(new RuntimeException("Request failed"))
+                  : CompletableFuture.completedFuture(null);
+        }, Duration.ofMillis(5), 0.5, Duration.ofMillis(20));
+
+        scheduler.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        scheduler.close();
+        assertEquals(0, scheduler.failures());
+    }
+
+}
@@ -0,0 +1,50 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+import wtf.villain.weave.translation.Arguments;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RenderCacheTest {
+
+    private static Project project(int version, Translation translation) {
+        return new Project(1, Map.of("en", Language.ENGLISH), Map.of("en", Map.of("greeting", translation)), Map.of(), version);
+    }
+
+    @Test
+    public void testCache() {
+        RenderCache cache = new RenderCache(1024);
+        Translation translation = new Translation("Hello {name}!");
+        Project project = project(1, translation);
+
+        String formatted = cache.format(project, translation, Arguments.of(Map.of("name", "John")));
+        assertEquals("Hello John!", formatted);
+        assertSame(formatted, cache.format(project, translation, Arguments.of(Map.of("name", "John"))));
+        assertEquals("Hello Jane!", cache.format(project, translation, Arguments.of(Map.of("name", "Jane"))));
+        assertEquals(2, cache.size());
+
+        cache.invalidate(1);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testEviction() {
+        RenderCache cache = new RenderCache(100);
+        Translation translation = new Translation("Hello {name}!");
+        Project project = project(1, translation);
+
+        for (int i = 0; i < 10; i++) {
+            cache.format(project, translation, Arguments.of(Map.of("name", i)));
+        }
+
+        assertTrue(cache.weight() <= 100);
+        assertTrue(cache.size() < 10);
+    }
+
+}
@@ -0,0 +1,60 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testRequestsDuringRunAreRunOnceMore() {
+        SingleFlight<Integer> flight = new SingleFlight<>();
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+
+        CompletableFuture<Integer> first = flight.run(() -> start(runs));
+        CompletableFuture<Integer> second = flight.run(() -> start(runs));
+        CompletableFuture<Integer> third = flight.run(() -> start(runs));
+
+        // The second and third request share a single run, which only starts once the first one has completed.
+        assertEquals(1, runs.size());
+        runs.get(0).complete(1);
+
+        assertEquals(1, first.join());
+        assertFalse(second.isDone());
+        assertEquals(2, runs.size());
+
+        runs.get(1).complete(2);
+        assertEquals(2, second.join());
+        assertEquals(2, third.join());
+
+        // Nothing is queued anymore, so the next request starts right away.
+        flight.run(() -> start(runs));
+        assertEquals(3, runs.size());
+    }
+
+    @Test
+    public void testFailureStartsQueuedRun() {
+        SingleFlight<Integer> flight = new SingleFlight<>();
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+
+        CompletableFuture<Integer> first = flight.run(() -> start(runs));
+        CompletableFuture<Integer> second = flight.run(() -> start(runs));
+        runs.get(0).completeExceptionally(new IllegalStateException());
+
+        assertTrue(first.isCompletedExceptionally());
+        runs.get(1).complete(2);
+        assertEquals(2, second.join());
+    }
+
+    private static CompletableFuture<Integer> start(List<CompletableFuture<Integer>> runs) {
+        CompletableFuture<Integer> run = new CompletableFuture<>();
+        runs.add(run);
+        return run;
+    }
+}
@@ -0,0 +1,110 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnapshotTest {
+
+    private static Project project(int id) {
+        return new Project(id, Map.of("en", Language.ENGLISH), Map.of("en", Map.of()), 1);
+    }
+
+    @Test
+    public void testProjectLookup() {
+        Map<Integer, Project> projects = new HashMap<>();
+        for (int id = -50; id <= 1000; id += 7) {
+            projects.put(id, project(id));
+        }
+
+        Snapshot snapshot = new Snapshot(1, projects);
+        assertEquals(projects, snapshot.projects());
+        projects.forEach((id, project) -> assertSame(project, snapshot.project(id)));
+        assertNull(snapshot.project(1));
+        assertNull(Snapshot.EMPTY.project(1));
+    }
+
+    @Test
+    public void testWith() {
+        Snapshot snapshot = Snapshot.EMPTY.with(List.of(project(1), project(2)));
+        Project replacement = project(2);
+
+        Snapshot updated = snapshot.with(List.of(replacement));
+        assertEquals(2, updated.version());
+        assertSame(replacement, updated.project(2));
+        assertEquals(2, updated.projects().size());
+    }
+
+    @Test
+    public void testTranslationLookupByLanguage() {
+        Translation hello = new Translation("Hello!");
+        Language custom = Language.create("Klingon", "tlh");
+
+        Project project = new Project(1,
+              Map.of("en", Language.ENGLISH, "tlh", custom, "de", Language.GERMAN),
+              Map.of("en", Map.of("hello", hello), "tlh", Map.of("hello", new Translation("nuqneH!"))),
+              Map.of(),
+              1);
+
+        assertSame(hello, project.translation(Language.ENGLISH, "hello"));
+        assertEquals("nuqneH!", project.translation(custom, "hello").value());
+        assertThrows(IllegalStateException.class, () -> project.translations(Language.GERMAN));
+        assertThrows(IllegalArgumentException.class, () -> project.translations(Language.FRENCH));
+    }
+
+    @Test
+    public void testFallbacks() {
+        Language austrian = Language.create("Austrian German", "de-AT");
+        FallbackChains fallbacks = new FallbackChains(Map.of("de-AT", List.of("de")), List.of("en"));
+        assertEquals(List.of("de", "en"), fallbacks.resolve("de-AT"));
+        assertEquals(List.of(), fallbacks.resolve("en"));
+
+        Map<String, Map<String, Translation>> translations = Map.of(
+              "en", Map.of("hello", new Translation("Hello!"), "bye", new Translation("Bye!"), "yes", new Translation("Yes")),
+              "de", Map.of("hello", new Translation("Hallo!"), "bye", new Translation("Tschüss!")),
+              "de-AT", Map.of("hello", new Translation("Servus!")));
+
+        Project project = new Project(1,
+              Map.of("en", Language.ENGLISH, "de", Language.GERMAN, "de-AT", austrian),
+              LanguageTable.resolve(translations, fallbacks),
+              Map.of(),
+              1);
+
+        assertEquals("Servus!", project.translation(austrian, "hello").value());
+        assertEquals("Tschüss!", project.translation(austrian, "bye").value());
+        assertEquals("Yes", project.translation(austrian, "yes").value());
+        assertEquals("Yes", project.translation(Language.GERMAN, "yes").value());
+        assertNull(project.translation(austrian, "missing"));
+        assertEquals(translations, project.translations());
+    }
+
+    @Test
+    public void testFormatAll() {
+        Project project = new Project(1,
+              Map.of("en", Language.ENGLISH, "de", Language.GERMAN),
+              Map.of(
+                    "en", Map.of("hello", new Translation("Hello {name}!"), "bye", new Translation("Bye {name}!")),
+                    "de", Map.of("hello", new Translation("Hallo {name}!"))),
+              Map.of(),
+              1);
+
+        Map<String, Object> formats = Map.of("name", "John");
+        assertEquals(List.of("Hello John!", "Bye John!"),
+              List.copyOf(project.formatAll(List.of("hello", "missing", "bye"), Language.ENGLISH, formats).values()));
+        assertEquals(Map.of("bye", "Bye John!", "hello", "Hello John!"),
+              project.formatAll(List.of("bye", "hello"), Language.ENGLISH, formats, true));
+        assertEquals(Map.of(Language.ENGLISH, "Hello John!", Language.GERMAN, "Hallo John!"),
+              project.formatForLanguages("hello", List.of(Language.ENGLISH, Language.GERMAN), formats));
+        assertEquals(Map.of(Language.ENGLISH, "Bye John!"),
+              project.formatForLanguages("bye", List.of(Language.ENGLISH, Language.GERMAN), formats, true));
+    }
+
+}
@@ -0,0 +1,104 @@
+package wtf.villain.weave.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import wtf.villain.weave.client.TolgeeClient;
+import wtf.villain.weave.client.TranslationsResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StorageTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private MockWebServer server;
+    private TolgeeClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new Retrofit.Builder()
+              .baseUrl(server.url("/"))
+              .addConverterFactory(JacksonConverterFactory.create(MAPPER))
+              .build()
+              .create(TolgeeClient.class);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private void enqueueLanguages(String... tags) throws IOException {
+        List<Map<String, Object>> languages = List.of(tags).stream()
+              .map(tag -> Map.<String, Object>of("id", tag.hashCode(), "name", tag, "tag", tag))
+              .toList();
+        server.enqueue(new MockResponse().setBody(MAPPER.writeValueAsString(Map.of("_embedded", Map.of("languages", languages)))));
+    }
+
+    private void enqueueTranslations(String etag, String... tags) throws IOException {
+        Map<String, Map<String, String>> translations = List.of(tags).stream()
+              .collect(Collectors.toMap(tag -> tag, tag -> Map.of("greeting", "Hello in " + tag + " " + etag)));
+        server.enqueue(new MockResponse().setHeader("ETag", etag).setBody(MAPPER.writeValueAsString(translations)));
+    }
+
+    private RecordedRequest takeTranslationsRequest() throws InterruptedException {
+        assertEquals("languages", server.takeRequest(5, TimeUnit.SECONDS).getRequestUrl().pathSegments().get(3));
+        return server.takeRequest(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testBulkFetch() throws Exception {
+        Storage storage = Storage.builder(List.of(1)).bulkFetch(true).build();
+
+        // The first refresh fetches every language with a single request.
+        enqueueLanguages("en", "de");
+        enqueueTranslations("\"v1\"", "en", "de");
+        storage.refresh(client).get(5, TimeUnit.SECONDS);
+
+        RecordedRequest request = takeTranslationsRequest();
+        assertEquals("en,de", request.getRequestUrl().pathSegments().get(4));
+        assertNull(request.getHeader("If-None-Match"));
+        assertEquals(2, server.getRequestCount());
+
+        // Every language shares the validators of the response.
+        TranslationsResponse.Validators validators = new TranslationsResponse.Validators("\"v1\"", null);
+        assertEquals(Map.of("en", validators, "de", validators), storage.ensureProject(1).validators());
+        assertEquals("Hello in de \"v1\"", storage.ensureProject(1).translation(Language.GERMAN, "greeting").value());
+
+        // An unchanged project is validated with a single request and keeps its translations.
+        enqueueLanguages("en", "de");
+        server.enqueue(new MockResponse().setResponseCode(304));
+        storage.refresh(client).get(5, TimeUnit.SECONDS);
+
+        assertEquals("\"v1\"", takeTranslationsRequest().getHeader("If-None-Match"));
+        assertEquals(4, server.getRequestCount());
+        assertEquals("Hello in de \"v1\"", storage.ensureProject(1).translation(Language.GERMAN, "greeting").value());
+
+        // A new language has never been fetched, so the validators cannot be sent and every language is fetched.
+        enqueueLanguages("en", "de", "fr");
+        enqueueTranslations("\"v2\"", "en", "de", "fr");
+        storage.refresh(client).get(5, TimeUnit.SECONDS);
+
+        request = takeTranslationsRequest();
+        assertEquals("en,de,fr", request.getRequestUrl().pathSegments().get(4));
+        assertNull(request.getHeader("If-None-Match"));
+        assertEquals(6, server.getRequestCount());
+        assertEquals("Hello in fr \"v2\"", storage.ensureProject(1).translation(Language.FRENCH, "greeting").value());
+    }
+}
@@ -0,0 +1,64 @@
+package wtf.villain.weave.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import wtf.villain.weave.translation.Translation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TranslationKeyTest {
+
+    private static void save(CatalogCache cache, int version, String greeting) throws IOException {
+        cache.save(new Project(
+              1,
+              Map.of("en", Language.ENGLISH, "de", Language.GERMAN),
+              Map.of("en", Map.of("greeting", new Translation(greeting)), "de", Map.of()),
+              Map.of(),
+              version));
+    }
+
+    @Test
+    public void testResolve(@TempDir Path directory) throws IOException {
+        CatalogCache cache = new CatalogCache(directory);
+        Storage storage = Storage.builder(List.of(1)).cache(cache).build();
+
+        save(cache, 1, "Hello!");
+        assertTrue(storage.loadCache());
+
+        TranslationKey key = storage.key(1, "greeting");
+        Translation translation = key.translation(Language.ENGLISH);
+        assertEquals("Hello!", translation.value());
+        assertSame(translation, key.translation(Language.ENGLISH));
+        assertNull(key.translation(Language.GERMAN));
+        assertThrows(IllegalArgumentException.class, () -> key.translation(Language.FRENCH));
+
+        // Publishing a new version of the project makes the handle resolve the key again.
+        save(cache, 2, "Hi!");
+        assertTrue(storage.loadCache());
+        assertEquals("Hi!", key.translation(Language.ENGLISH).value());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedConstructor() {
+        Storage storage = new Storage(List.of(1), List.of());
+        assertEquals(List.of(1), storage.projectIds());
+        assertTrue(storage.incrementalRefresh());
+    }
+
+    @Test
+    public void testMissingProject() {
+        Storage storage = Storage.builder(List.of(1)).build();
+        assertThrows(IllegalArgumentException.class, () -> storage.key(1, "greeting").translation(Language.ENGLISH));
+    }
+
+}
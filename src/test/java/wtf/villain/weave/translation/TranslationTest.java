@@ -1,11 +1,22 @@
 package wtf.villain.weave.translation;
 
 import org.junit.jupiter.api.Test;
+import wtf.villain.weave.translation.format.RichTextHandler;
 import wtf.villain.weave.translation.process.WeaveProcessor;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class TranslationTest {
 
@@ -98,4 +109,130 @@ public class TranslationTest {
         assertEquals(translation.prepare().hashCode(), translation.prepare().hashCode());
     }
 
+    @Test
+    public void testFormatTo() {
+        Translation translation = new Translation("Hello {name}, welcome to {place}!");
+        PreparedTranslation prepared = translation.prepare("place", "name");
+        StringBuilder builder = new StringBuilder("> ");
+        assertEquals("> Hello John, welcome to Weave!", prepared.formatTo(builder, "Weave", "John").toString());
+    }
+
+    @Test
+    public void testQuotedText() {
+        Translation translation = new Translation("It''s '{name}' and {name}!");
+        assertEquals("It's {name} and John!", translation.format(Map.of("name", "John")));
+    }
+
+    @Test
+    public void testMissingArgument() {
+        Translation translation = new Translation("Hello {name}!");
+        assertEquals("Hello {name}!", translation.format(Map.of()));
+    }
+
+    @Test
+    public void testPreparedObjectsAreShared() throws Exception {
+        Translation translation = new Translation("Hello {name}!");
+        PreparedTranslation prepared = translation.prepare("name");
+
+        CompletableFuture<PreparedTranslation> other = CompletableFuture.supplyAsync(() -> translation.prepare("name"));
+        assertSame(prepared, other.get());
+        assertEquals("Hello John!", CompletableFuture.supplyAsync(() -> translation.format("John")).get());
+    }
+
+    @Test
+    public void testFormatWithoutPreparing() {
+        Translation translation = new Translation("{name} has {dogs, plural, one {one dog} other {# dogs}} in {place}.");
+        assertEquals("Peter has 3 dogs in Berlin.", translation.format("Peter", 3, "Berlin"));
+        assertEquals(List.of("name", "dogs", "place"), translation.prepareInOrder().template().argumentNames());
+    }
+
+    @Test
+    public void testFormatIgnoresOtherPreparations() throws Exception {
+        Translation translation = new Translation("{a} gave {b} a gift.");
+        CompletableFuture.runAsync(() -> translation.prepare("b", "a")).get();
+        translation.prepare(Set.of("a", "b"));
+
+        assertEquals("Alice gave Bob a gift.", translation.format("Alice", "Bob"));
+    }
+
+    @Test
+    public void testFormatRich() {
+        Translation translation = new Translation("<red>Hello <b>{name}</b>!</red><br/> 1 < 2");
+        assertEquals("open:red|text:Hello |open:b|arg:name=42|close:b|text:!|close:red|open:br|close:br|text: 1 < 2|",
+              translation.prepare("name").formatRich(new EventHandler(), 42).events.toString());
+    }
+
+    @Test
+    public void testFormatRichArgumentsAreNotMarkup() {
+        Translation translation = new Translation("{n, plural, one {# item} other {# items}} for <b>{who}</b>");
+
+        assertEquals("text:2 items for |open:b|arg:who=<red>evil</red>|close:b|",
+              translation.prepare("n", "who").formatRich(new EventHandler(), 2, "<red>evil</red>").events.toString());
+    }
+
+    @Test
+    public void testFormatRichTagWithArgument() {
+        Translation translation = new Translation("Click <click:run_command:/msg {player}>here</click>");
+
+        assertEquals("text:Click |open:click:run_command:/msg Bob|text:here|close:click|",
+              translation.prepare("player").formatRich(new EventHandler(), "Bob").events.toString());
+
+        Translation plural = new Translation("{n, plural, other {# new}} <click:open:{url}>messages</click>");
+
+        assertEquals("text:3 new |open:click:open:<b>x|text:messages|close:click|",
+              plural.prepare("n", "url").formatRich(new EventHandler(), 3, "<b>x").events.toString());
+    }
+
+    @Test
+    public void testWriteTo() {
+        Translation translation = new Translation("Grüße {name} {missing} \uD83D\uDE00!");
+        PreparedTranslation prepared = translation.prepare("name");
+        byte[] expected = "Grüße Jörg {missing} \uD83D\uDE00!".getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = prepared.writeTo(ByteBuffer.allocate(64), "Jörg").flip();
+        byte[] written = new byte[buffer.remaining()];
+        buffer.get(written);
+        assertArrayEquals(expected, written);
+
+        assertArrayEquals(expected, prepared.writeTo(new ByteArrayOutputStream(), "Jörg").toByteArray());
+        assertArrayEquals("Grüße 5 {missing} \uD83D\uDE00!".getBytes(StandardCharsets.UTF_8),
+              prepared.writeTo(new ByteArrayOutputStream(), 5).toByteArray());
+    }
+
+    @Test
+    public void testWriteToOverflow() {
+        PreparedTranslation prepared = new Translation("Hello {name}!").prepare("name");
+        ByteBuffer buffer = ByteBuffer.allocate(12).put((byte) '>');
+
+        assertThrows(BufferOverflowException.class, () -> prepared.writeTo(buffer, "Jörg"));
+        assertEquals(1, buffer.position());
+
+        prepared.writeTo(buffer, "Jo");
+        assertEquals(">Hello Jo!", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    private static final class EventHandler implements RichTextHandler {
+
+        private final StringBuilder events = new StringBuilder();
+
+        @Override
+        public void text(String text) {
+            events.append("text:").append(text).append('|');
+        }
+
+        @Override
+        public void argument(String name, Object value) {
+            events.append("arg:").append(name).append('=').append(value).append('|');
+        }
+
+        @Override
+        public void openTag(String tag) {
+            events.append("open:").append(tag).append('|');
+        }
+
+        @Override
+        public void closeTag(String tag) {
+            events.append("close:").append(tag).append('|');
+        }
+    }
 }
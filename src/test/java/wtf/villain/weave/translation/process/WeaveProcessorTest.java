@@ -0,0 +1,138 @@
+package wtf.villain.weave.translation.process;
+
+import org.junit.jupiter.api.Test;
+import wtf.villain.weave.translation.Arguments;
+import wtf.villain.weave.translation.Translation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WeaveProcessorTest {
+
+    @Test
+    public void testStaticProcessors() {
+        AtomicInteger calls = new AtomicInteger();
+        WeaveProcessor processor = WeaveProcessor.of(PostProcessor.ofStatic(text -> {
+            calls.incrementAndGet();
+            return text.replace('&', '§');
+        }));
+
+        Translation translation = new Translation("&aHello {name}!", processor);
+        assertEquals("§aHello {name}!", translation.pattern());
+        assertFalse(processor.dynamic());
+
+        assertEquals("§aHello John!", translation.format("John"));
+        assertEquals("§aHello Jane!", translation.format("Jane"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testPreProcessors() {
+        WeaveProcessor processor = WeaveProcessor.of(
+              List.of(String::trim, value -> value.replace('&', '§')),
+              List.of(PostProcessor.ofStatic(value -> value + "!"), text -> text.text().toUpperCase()));
+
+        Translation translation = new Translation("  &aHello {name}  ", processor);
+        assertEquals("  &aHello {name}  ", translation.value());
+        assertEquals("§aHello {name}!", translation.pattern());
+        assertEquals("§AHELLO JOHN!", translation.format("John"));
+        assertSame(WeaveProcessor.NONE, WeaveProcessor.of(List.of(), List.of()));
+    }
+
+    @Test
+    public void testProcessorOrder() {
+        WeaveProcessor processor = WeaveProcessor.of(
+              PostProcessor.ofStatic(value -> value + "!"),
+              text -> text.text() + "?",
+              PostProcessor.ofStatic(value -> value + "."));
+
+        Translation translation = new Translation("Hello {name}", processor);
+        assertEquals("Hello {name}!", translation.pattern());
+        assertEquals("Hello John!?.", translation.format("John"));
+    }
+
+    @Test
+    public void testStaticProcessorsSeeConstructedTranslation() {
+        List<Translation> seen = new ArrayList<>();
+        WeaveProcessor processor = WeaveProcessor.of(new PostProcessor() {
+            @Override
+            public String apply(Text text) {
+                seen.add(text.translation());
+                assertNotNull(text.translation().processor());
+                return text.text().toUpperCase();
+            }
+
+            @Override
+            public boolean isStatic() {
+                return true;
+            }
+        });
+
+        Translation translation = new Translation("Hello {name}", processor);
+        assertTrue(seen.isEmpty());
+        assertEquals("HELLO John", translation.format("John"));
+        assertEquals(List.of(translation), seen);
+    }
+
+    @Test
+    public void testDynamicProcessors() {
+        BufferPostProcessor upperCase = (text, buffer) -> {
+            for (int i = 0; i < buffer.length(); i++) {
+                buffer.setCharAt(i, Character.toUpperCase(buffer.charAt(i)));
+            }
+            return true;
+        };
+        BufferPostProcessor unchanged = (text, buffer) -> false;
+        PostProcessor exclaim = text -> text.text() + "!";
+
+        WeaveProcessor processor = WeaveProcessor.of(unchanged, upperCase, exclaim, upperCase, PostProcessor.identity());
+        Translation translation = new Translation("Hello {name}", processor);
+        assertTrue(processor.dynamic());
+        assertEquals("HELLO JOHN!", translation.format("John"));
+
+        PostProcessor greeting = text -> text.text() + " (" + text.arguments().name(0) + "=" + text.arguments().get("name") + ")";
+        assertEquals("Hello John (name=John)", new Translation("Hello {name}", WeaveProcessor.of(greeting)).format(Map.of("name", "John")));
+
+        String text = "Hello";
+        assertSame(text, WeaveProcessor.of(unchanged, PostProcessor.identity()).apply(translation, text, Arguments.NONE));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedBridges() {
+        List<Object[]> formats = new ArrayList<>();
+        WeaveProcessor processor = WeaveProcessor.of(text -> {
+            formats.add(text.formats());
+            return text.text() + " (" + text.arguments().get("name") + ")";
+        });
+
+        Translation translation = new Translation("{greeting} {name}", processor);
+        assertEquals("Hi John (John)", processor.apply(translation, "Hi John", "Hi", "John"));
+        assertArrayEquals(new Object[]{"Hi", "John"}, formats.get(0));
+    }
+
+    @Test
+    public void testArgumentsCopy() {
+        List<Arguments> kept = new ArrayList<>();
+        Translation translation = new Translation("Hello {name}", WeaveProcessor.of(text -> {
+            kept.add(text.arguments().copy());
+            return text.text();
+        }));
+
+        Object[] values = {"John"};
+        translation.prepare("name").format(values);
+        values[0] = "Jane";
+
+        assertEquals("John", kept.get(0).get("name"));
+        assertEquals(Arguments.of(List.of("name"), "John"), kept.get(0));
+    }
+}